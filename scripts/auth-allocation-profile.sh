@@ -0,0 +1,36 @@
+#!/usr/bin/env bash
+# Perfil de asignaciones por petición autenticada con JFR.
+# Arranca la aplicación con JFR, completa login + validate y lanza N peticiones a /api/hello;
+# después resume las muestras jdk.ObjectAllocationSample de los tipos de Authentication.
+# Ejecutar sobre dos builds (antes/después) y comparar la salida.
+# Requiere Redis en localhost:6379 y haber empaquetado con: mvn package
+set -euo pipefail
+
+JAR="${JAR:-$(cd "$(dirname "$0")/.." && pwd)/target/spring-web-session-with-redis-1.0.0.jar}"
+BASE_URL="http://localhost:${PORT:-8080}"
+REQUESTS="${REQUESTS:-20000}"
+RECORDING="$(mktemp -d)/auth.jfr"
+COOKIES="$(mktemp)"
+
+java -XX:StartFlightRecording=filename="$RECORDING",settings=profile -jar "$JAR" --server.port="${PORT:-8080}" \
+  > /dev/null 2>&1 &
+PID=$!
+trap 'kill $PID 2> /dev/null || true; rm -f "$COOKIES"' EXIT
+
+until curl -sf "$BASE_URL/actuator/health/readiness" > /dev/null; do sleep 0.2; done
+
+OTP=$(curl -s -c "$COOKIES" -X POST "$BASE_URL/auth/login?documentNumber=12345678&email=test@example.com" \
+  | sed -E 's/.*"otp":"([0-9]+)".*/\1/')
+curl -s -b "$COOKIES" -c "$COOKIES" -X POST "$BASE_URL/auth/validate?otp=$OTP" > /dev/null
+
+for _ in $(seq 1 "$REQUESTS"); do
+  curl -s -b "$COOKIES" "$BASE_URL/api/hello" > /dev/null
+done
+
+jcmd "$PID" JFR.dump filename="$RECORDING" > /dev/null
+echo "Peticiones autenticadas: $REQUESTS"
+curl -s "$BASE_URL/actuator/metrics/security.authentication.cache?tag=result:hit" | sed -E 's/.*"value":([0-9.E]+).*/Authentication reutilizados: \1/'
+echo
+jfr print --events jdk.ObjectAllocationSample "$RECORDING" \
+  | grep -oE 'objectClass = [A-Za-z0-9_.$]+(AuthenticationToken|GrantedAuthority|SecurityContextImpl)' \
+  | sort | uniq -c | sort -rn
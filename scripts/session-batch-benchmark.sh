@@ -0,0 +1,33 @@
+#!/usr/bin/env bash
+# Compara 10 llamadas individuales a /api/session/set con una sola llamada a /api/session/batch
+# que establece los mismos 10 atributos, usando la misma cookie SESSION.
+# Requiere la aplicación en ejecución.
+set -euo pipefail
+
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+ROUNDS="${ROUNDS:-50}"
+COOKIES="$(mktemp)"
+trap 'rm -f "$COOKIES"' EXIT
+
+BATCH_BODY='{"set":{"k1":"v1","k2":"v2","k3":"v3","k4":"v4","k5":"v5","k6":"v6","k7":"v7","k8":"v8","k9":"v9","k10":"v10"}}'
+
+# Crea la sesión antes de medir
+curl -s -c "$COOKIES" -X POST "$BASE_URL/api/session/set?key=k0&value=v0" > /dev/null
+
+singles=0
+batches=0
+for _ in $(seq 1 "$ROUNDS"); do
+  for i in $(seq 1 10); do
+    t=$(curl -s -b "$COOKIES" -c "$COOKIES" -X POST "$BASE_URL/api/session/set?key=k$i&value=v$i" \
+      -o /dev/null -w "%{time_total}")
+    singles=$(awk "BEGIN { print $singles + $t }")
+  done
+
+  t=$(curl -s -b "$COOKIES" -c "$COOKIES" -X POST "$BASE_URL/api/session/batch" \
+    -H "Content-Type: application/json" -d "$BATCH_BODY" -o /dev/null -w "%{time_total}")
+  batches=$(awk "BEGIN { print $batches + $t }")
+done
+
+echo "Rondas:                          $ROUNDS"
+awk "BEGIN { printf \"10 llamadas individuales (media): %.2f ms\n\", $singles * 1000 / $ROUNDS }"
+awk "BEGIN { printf \"1 llamada en lote (media):        %.2f ms\n\", $batches * 1000 / $ROUNDS }"
@@ -0,0 +1,33 @@
+#!/usr/bin/env bash
+# Ráfagas de peticiones paralelas con la misma cookie SESSION (como un SPA al cargar la página)
+# y lecturas de sesión enviadas a Redis frente a las agrupadas.
+# Requiere app.session.compact.enabled=true y la aplicación en ejecución.
+set -euo pipefail
+
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+BURSTS="${BURSTS:-100}"
+PARALLEL="${PARALLEL:-10}"
+COOKIES="$(mktemp)"
+trap 'rm -f "$COOKIES"' EXIT
+
+metric() {
+  curl -s "$BASE_URL/actuator/metrics/$1" | sed -E 's/.*"value":([0-9.E]+).*/\1/'
+}
+
+curl -s -c "$COOKIES" -X POST "$BASE_URL/api/session/set?key=burst&value=1" > /dev/null
+
+loads_before=$(metric session.load.redis)
+coalesced_before=$(metric session.load.coalesced)
+
+for _ in $(seq 1 "$BURSTS"); do
+  for _ in $(seq 1 "$PARALLEL"); do
+    curl -s -b "$COOKIES" "$BASE_URL/api/session/get?key=burst" > /dev/null &
+  done
+  wait
+done
+
+loads=$(awk "BEGIN { print $(metric session.load.redis) - $loads_before }")
+coalesced=$(awk "BEGIN { print $(metric session.load.coalesced) - $coalesced_before }")
+echo "Peticiones:            $((BURSTS * PARALLEL))"
+echo "Lecturas a Redis:      $loads"
+echo "Lecturas agrupadas:    $coalesced"
@@ -0,0 +1,33 @@
+#!/usr/bin/env bash
+# Mide el tiempo hasta la primera petición servida (readiness UP) en cada modo de arranque.
+# Requiere Redis en localhost:6379 y haber empaquetado con: mvn -Pfast-startup package
+set -euo pipefail
+
+JAR_NAME="spring-web-session-with-redis-1.0.0.jar"
+TARGET="$(cd "$(dirname "$0")/.." && pwd)/target"
+PORT="${PORT:-8080}"
+RUNS="${RUNS:-3}"
+WARMUP="${WARMUP:-false}" # true para incluir el calentamiento previo a readiness
+
+measure() {
+  local mode="$1"; shift
+  local total=0
+  for _ in $(seq 1 "$RUNS"); do
+    local start end
+    start=$(date +%s%3N)
+    "$@" --server.port="$PORT" --app.startup.warmup.enabled="$WARMUP" > /dev/null 2>&1 &
+    local pid=$!
+    until curl -sf "http://localhost:$PORT/actuator/health/readiness" > /dev/null; do
+      sleep 0.05
+    done
+    end=$(date +%s%3N)
+    kill "$pid"; wait "$pid" 2> /dev/null || true
+    total=$((total + end - start))
+  done
+  printf '%-12s %6d ms\n' "$mode" $((total / RUNS))
+}
+
+measure "jit"     java -jar "$TARGET/cds/$JAR_NAME"
+measure "aot"     java -Dspring.aot.enabled=true -jar "$TARGET/cds/$JAR_NAME"
+measure "aot+cds" java -XX:SharedArchiveFile="$TARGET/cds/application.jsa" -Dspring.aot.enabled=true \
+  -jar "$TARGET/cds/$JAR_NAME"
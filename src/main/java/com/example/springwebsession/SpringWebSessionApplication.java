@@ -2,11 +2,13 @@ package com.example.springwebsession;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Clase principal de la aplicación Spring Boot con WebFlux
  */
 @SpringBootApplication
+@EnableScheduling
 public class SpringWebSessionApplication {
 
   public static void main(String[] args) {
@@ -0,0 +1,114 @@
+package com.example.springwebsession.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limitador de concurrencia AIMD (incremento aditivo, decremento
+ * multiplicativo)
+ * 
+ * Cada petición que termina por debajo del umbral de latencia incrementa el
+ * límite en 1/límite (aproximadamente +1 por cada "ventana" completa de
+ * peticiones); una petición lenta o con error lo multiplica por el factor de
+ * backoff. El decremento se aplica como máximo una vez por ventana: solo cuenta
+ * una petición lenta que empezó después del último decremento, de modo que una
+ * ráfaga de peticiones afectadas por el mismo pico de latencia reduce el límite
+ * una sola vez. Todo el estado se actualiza sin bloqueos
+ */
+public class AdaptiveConcurrencyLimiter {
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final long latencyThresholdNanos;
+  private final double backoffRatio;
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final int initialLimit;
+  private final AtomicLong limitBits;
+  private final AtomicLong lastDecreaseNanos = new AtomicLong(System.nanoTime());
+
+  public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+    this.minLimit = properties.getMinLimit();
+    this.maxLimit = properties.getMaxLimit();
+    this.latencyThresholdNanos = properties.getLatencyThreshold().toNanos();
+    this.backoffRatio = properties.getBackoffRatio();
+    this.initialLimit = properties.getInitialLimit();
+    this.limitBits = new AtomicLong(Double.doubleToLongBits(initialLimit));
+  }
+
+  /**
+   * Intenta reservar un hueco para una petición
+   * 
+   * @param priority Prioridad de la petición
+   * @return true si la petición puede continuar; debe liberarse con
+   *         {@link #release(long, long, boolean)}
+   */
+  public boolean tryAcquire(RequestPriority priority) {
+    double allowed = getLimit() * priority.getLimitShare();
+    while (true) {
+      int current = inFlight.get();
+      if (current >= allowed) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Libera el hueco de una petición y ajusta el límite
+   * 
+   * @param startNanos Instante de inicio de la petición (System.nanoTime())
+   * @param endNanos   Instante de fin de la petición (System.nanoTime())
+   * @param failed     Indica si la petición terminó con error
+   */
+  public void release(long startNanos, long endNanos, boolean failed) {
+    inFlight.decrementAndGet();
+    boolean overloaded = failed || endNanos - startNanos > latencyThresholdNanos;
+
+    if (overloaded) {
+      // Solo una petición iniciada después del último decremento puede reducir el
+      // límite, y solo la primera que lo consiga
+      long lastDecrease = lastDecreaseNanos.get();
+      if (startNanos - lastDecrease < 0 || !lastDecreaseNanos.compareAndSet(lastDecrease, endNanos)) {
+        return;
+      }
+    }
+
+    while (true) {
+      long bits = limitBits.get();
+      double limit = Double.longBitsToDouble(bits);
+      double next = overloaded
+          ? Math.max(minLimit, limit * backoffRatio)
+          : Math.min(maxLimit, limit + 1.0 / limit);
+      if (next == limit || limitBits.compareAndSet(bits, Double.doubleToLongBits(next))) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Restablece el límite inicial, descartando lo aprendido hasta ahora (por
+   * ejemplo, las peticiones lentas del calentamiento con el JIT en frío)
+   */
+  public void reset() {
+    limitBits.set(Double.doubleToLongBits(initialLimit));
+    lastDecreaseNanos.set(System.nanoTime());
+  }
+
+  /**
+   * Libera el hueco de una petición cancelada sin ajustar el límite
+   */
+  public void releaseWithoutSample() {
+    inFlight.decrementAndGet();
+  }
+
+  public double getLimit() {
+    return Double.longBitsToDouble(limitBits.get());
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+}
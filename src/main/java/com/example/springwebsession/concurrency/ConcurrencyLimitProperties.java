@@ -0,0 +1,62 @@
+package com.example.springwebsession.concurrency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuración del limitador adaptativo de concurrencia (app.concurrency)
+ */
+@Data
+@ConfigurationProperties(prefix = "app.concurrency")
+public class ConcurrencyLimitProperties {
+
+  /**
+   * Activa el limitador
+   */
+  private boolean enabled = true;
+
+  /**
+   * Límite inicial de peticiones simultáneas
+   */
+  private int initialLimit = 100;
+
+  /**
+   * Límite mínimo al que puede reducirse
+   */
+  private int minLimit = 10;
+
+  /**
+   * Límite máximo al que puede crecer
+   */
+  private int maxLimit = 500;
+
+  /**
+   * Latencia a partir de la cual una petición se considera señal de saturación
+   */
+  private Duration latencyThreshold = Duration.ofMillis(250);
+
+  /**
+   * Factor multiplicativo aplicado al límite ante saturación
+   */
+  private double backoffRatio = 0.9;
+
+  /**
+   * Valor de la cabecera Retry-After de las respuestas 503
+   */
+  private Duration retryAfter = Duration.ofSeconds(1);
+
+  /**
+   * Patrones de ruta por prioridad; las rutas sin coincidencia son NORMAL
+   */
+  private Map<RequestPriority, List<String>> priorities = new EnumMap<>(RequestPriority.class);
+
+  public ConcurrencyLimitProperties() {
+    priorities.put(RequestPriority.CRITICAL, new ArrayList<>(List.of("/actuator/health", "/actuator/health/**")));
+  }
+}
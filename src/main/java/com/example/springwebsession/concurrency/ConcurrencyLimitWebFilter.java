@@ -0,0 +1,121 @@
+package com.example.springwebsession.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filtro de limitación adaptativa de concurrencia con descarte por prioridad
+ * 
+ * Se ejecuta antes de la cadena de Spring Security, de modo que las peticiones
+ * descartadas no llegan a cargar la sesión de Redis. Las peticiones rechazadas
+ * reciben 503 con la cabecera Retry-After
+ */
+@Slf4j
+public class ConcurrencyLimitWebFilter implements WebFilter, Ordered {
+
+  /**
+   * Antes de WebFilterChainProxy de Spring Security (-100)
+   */
+  public static final int ORDER = -200;
+
+  private static final byte[] REJECTED_BODY = ("{\"status\":503,\"error\":\"Service Unavailable\","
+      + "\"type\":\"OVERLOAD\",\"message\":\"Servidor saturado, intente nuevamente\"}")
+      .getBytes(StandardCharsets.UTF_8);
+
+  private final AdaptiveConcurrencyLimiter limiter;
+  private final String retryAfterSeconds;
+  private final List<Map.Entry<PathPattern, RequestPriority>> priorityPatterns = new ArrayList<>();
+  private final Map<RequestPriority, Counter> shedCounters = new EnumMap<>(RequestPriority.class);
+
+  public ConcurrencyLimitWebFilter(AdaptiveConcurrencyLimiter limiter, ConcurrencyLimitProperties properties,
+      MeterRegistry meterRegistry) {
+    this.limiter = limiter;
+    this.retryAfterSeconds = String.valueOf(Math.max(1, properties.getRetryAfter().toSeconds()));
+
+    // Se evalúan en el orden de RequestPriority: las prioridades más altas ganan
+    for (RequestPriority priority : RequestPriority.values()) {
+      for (String pattern : properties.getPriorities().getOrDefault(priority, List.of())) {
+        priorityPatterns.add(Map.entry(PathPatternParser.defaultInstance.parse(pattern), priority));
+      }
+      shedCounters.put(priority, Counter.builder("http.concurrency.shed")
+          .description("Peticiones rechazadas por el limitador de concurrencia")
+          .tag("priority", priority.name().toLowerCase())
+          .register(meterRegistry));
+    }
+
+    Gauge.builder("http.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+        .description("Límite adaptativo actual de peticiones simultáneas")
+        .register(meterRegistry);
+    Gauge.builder("http.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+        .description("Peticiones en curso")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    RequestPriority priority = resolvePriority(exchange.getRequest().getPath().pathWithinApplication());
+
+    if (!limiter.tryAcquire(priority)) {
+      shedCounters.get(priority).increment();
+      log.debug("Petición descartada ({}): {} - límite actual {}", priority,
+          exchange.getRequest().getPath(), limiter.getLimit());
+      return reject(exchange.getResponse());
+    }
+
+    long start = System.nanoTime();
+    return chain.filter(exchange).doFinally(signal -> {
+      if (signal == SignalType.CANCEL) {
+        limiter.releaseWithoutSample();
+        return;
+      }
+      HttpStatusCode status = exchange.getResponse().getStatusCode();
+      boolean failed = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+      limiter.release(start, System.nanoTime(), failed);
+    });
+  }
+
+  @Override
+  public int getOrder() {
+    return ORDER;
+  }
+
+  private RequestPriority resolvePriority(PathContainer path) {
+    for (Map.Entry<PathPattern, RequestPriority> entry : priorityPatterns) {
+      if (entry.getKey().matches(path)) {
+        return entry.getValue();
+      }
+    }
+    return RequestPriority.NORMAL;
+  }
+
+  private Mono<Void> reject(ServerHttpResponse response) {
+    response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+    response.getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+    response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+    DataBuffer body = response.bufferFactory().wrap(REJECTED_BODY);
+    return response.writeWith(Mono.just(body));
+  }
+}
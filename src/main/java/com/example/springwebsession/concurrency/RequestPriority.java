@@ -0,0 +1,40 @@
+package com.example.springwebsession.concurrency;
+
+/**
+ * Prioridad de una petición frente al limitador de concurrencia
+ * 
+ * Cada prioridad solo puede ocupar una fracción del límite actual, de modo que
+ * al saturarse se descartan primero las peticiones de menor prioridad
+ */
+public enum RequestPriority {
+
+  /**
+   * Nunca se descarta (por ejemplo /actuator/health)
+   */
+  CRITICAL(Double.POSITIVE_INFINITY),
+
+  /**
+   * Tráfico autenticado; puede usar todo el límite
+   */
+  HIGH(1.0),
+
+  /**
+   * Prioridad por defecto
+   */
+  NORMAL(0.8),
+
+  /**
+   * Primeras en descartarse (sesiones anónimas, nuevos logins)
+   */
+  LOW(0.5);
+
+  private final double limitShare;
+
+  RequestPriority(double limitShare) {
+    this.limitShare = limitShare;
+  }
+
+  public double getLimitShare() {
+    return limitShare;
+  }
+}
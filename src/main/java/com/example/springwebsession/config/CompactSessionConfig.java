@@ -0,0 +1,43 @@
+package com.example.springwebsession.config;
+
+import com.example.springwebsession.service.SessionTtlPolicy;
+import com.example.springwebsession.session.CompactRedisSessionRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.session.config.annotation.web.server.EnableSpringWebSession;
+
+/**
+ * Configuración de Spring Session con el formato compacto de almacenamiento en
+ * Redis (app.session.compact.enabled=true). Sustituye a SessionConfig
+ */
+@Slf4j
+@Configuration
+@EnableSpringWebSession
+@ConditionalOnProperty(prefix = "app.session.compact", name = "enabled", havingValue = "true")
+public class CompactSessionConfig {
+
+  @Bean
+  public CompactRedisSessionRepository sessionRepository(ReactiveRedisConnectionFactory connectionFactory,
+      @Value("${spring.session.redis.namespace}") String namespace,
+      @Value("${app.session.compact.max-in-flight-loads:10000}") int maxInFlightLoads,
+      SessionTtlPolicy ttlPolicy, MeterRegistry meterRegistry) {
+    log.info("Usando formato compacto de sesiones en Redis (namespace: {})", namespace);
+    CompactRedisSessionRepository repository = new CompactRedisSessionRepository(connectionFactory, namespace,
+        maxInFlightLoads);
+    repository.setDefaultMaxInactiveInterval(ttlPolicy.defaultTtl());
+
+    FunctionCounter.builder("session.load.redis", repository, CompactRedisSessionRepository::getRedisLoads)
+        .description("Lecturas de sesión enviadas a Redis")
+        .register(meterRegistry);
+    FunctionCounter.builder("session.load.coalesced", repository, CompactRedisSessionRepository::getCoalescedLoads)
+        .description("Lecturas de sesión agrupadas con una lectura en curso")
+        .register(meterRegistry);
+    return repository;
+  }
+}
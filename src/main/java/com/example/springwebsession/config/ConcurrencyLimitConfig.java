@@ -0,0 +1,54 @@
+package com.example.springwebsession.config;
+
+import com.example.springwebsession.concurrency.AdaptiveConcurrencyLimiter;
+import com.example.springwebsession.concurrency.ConcurrencyLimitProperties;
+import com.example.springwebsession.concurrency.ConcurrencyLimitWebFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración del limitador adaptativo de concurrencia que protege la
+ * aplicación cuando aumenta la latencia de Redis
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@ConditionalOnProperty(prefix = "app.concurrency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+  @Bean
+  public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+    log.info("Limitador de concurrencia: inicial={}, min={}, max={}, umbral de latencia={}",
+        properties.getInitialLimit(), properties.getMinLimit(), properties.getMaxLimit(),
+        properties.getLatencyThreshold());
+    return new AdaptiveConcurrencyLimiter(properties);
+  }
+
+  /**
+   * ApplicationReadyEvent se publica después de los ApplicationRunner (incluido
+   * el calentamiento), justo antes de que readiness pase a ACCEPTING_TRAFFIC; se
+   * descarta el límite aprendido con el JIT en frío
+   * 
+   * @param limiter Limitador de concurrencia
+   * @return Listener que restablece el límite
+   */
+  @Bean
+  public ApplicationListener<ApplicationReadyEvent> concurrencyLimitReset(AdaptiveConcurrencyLimiter limiter) {
+    return event -> {
+      limiter.reset();
+      log.info("Límite de concurrencia restablecido al valor inicial antes de aceptar tráfico");
+    };
+  }
+
+  @Bean
+  public ConcurrencyLimitWebFilter concurrencyLimitWebFilter(AdaptiveConcurrencyLimiter limiter,
+      ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+    return new ConcurrencyLimitWebFilter(limiter, properties, meterRegistry);
+  }
+}
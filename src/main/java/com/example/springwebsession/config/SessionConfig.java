@@ -1,17 +1,27 @@
 package com.example.springwebsession.config;
 
+import com.example.springwebsession.service.SessionTtlPolicy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.session.config.ReactiveSessionRepositoryCustomizer;
+import org.springframework.session.data.redis.ReactiveRedisSessionRepository;
 import org.springframework.session.data.redis.config.annotation.web.server.EnableRedisWebSession;
 
 /**
  * Configuración de Spring Session con Redis para WebFlux
  * Usa el namespace configurado en application.yml
+ * 
+ * El TTL de cada sesión lo asigna SessionTtlPolicy según su estado; las
+ * sesiones nuevas parten del TTL de sesión anónima
+ * 
+ * Con app.session.compact.enabled=true se usa CompactSessionConfig en su lugar
  */
 @Slf4j
 @Configuration
-@EnableRedisWebSession(maxInactiveIntervalInSeconds = 1800, // 30 minutos
-    redisNamespace = "${spring.session.redis.namespace}")
+@ConditionalOnProperty(prefix = "app.session.compact", name = "enabled", havingValue = "false", matchIfMissing = true)
+@EnableRedisWebSession(redisNamespace = "${spring.session.redis.namespace}")
 public class SessionConfig {
 
   // Spring Boot configura automáticamente:
@@ -20,4 +30,13 @@ public class SessionConfig {
   // - WebSessionStore
   // - WebSessionManager
   // - ReactiveRedisTemplate
+
+  @Bean
+  public ReactiveSessionRepositoryCustomizer<ReactiveRedisSessionRepository> sessionTtlCustomizer(
+      SessionTtlPolicy ttlPolicy) {
+    return repository -> {
+      log.info("TTL por defecto de sesiones nuevas: {}", ttlPolicy.defaultTtl());
+      repository.setDefaultMaxInactiveInterval(ttlPolicy.defaultTtl());
+    };
+  }
 }
@@ -0,0 +1,134 @@
+package com.example.springwebsession.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.WebSession;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Calentamiento de la aplicación antes de aceptar tráfico
+ * 
+ * Los ApplicationRunner se ejecutan con el servidor ya iniciado pero antes de
+ * que el estado de readiness pase a ACCEPTING_TRAFFIC, por lo que el pod no
+ * recibe peticiones hasta que la conexión a Redis está abierta y el flujo
+ * completo login → validate → endpoint protegido → logout ha sido ejercitado
+ * por el JIT
+ * 
+ * La propiedad app.startup.warmup.enabled se evalúa al arrancar (no como
+ * condición del bean) para que también pueda cambiarse con el build AOT
+ * 
+ * El calentamiento usa documentos con el prefijo DOCUMENT_PREFIX; las métricas
+ * de sesiones activas, usuarios y TTL ignoran esas sesiones (ver
+ * {@link #isWarmup(WebSession)}) y el logout final las saca de la caché de
+ * Authentication
+ */
+@Slf4j
+@Configuration
+public class StartupWarmupConfig {
+
+  public static final String DOCUMENT_PREFIX = "warmup-";
+
+  private static final String SESSION_COOKIE = "SESSION";
+
+  // Flujos en paralelo; cada uno usa su propio documento porque el OTP se
+  // almacena por número de documento
+  private static final int PARALLEL_FLOWS = 4;
+
+  @Bean
+  public ApplicationRunner startupWarmup(ReactiveRedisConnectionFactory connectionFactory, Environment environment,
+      @Value("${app.startup.warmup.enabled:false}") boolean enabled,
+      @Value("${app.startup.warmup.iterations:50}") int iterations,
+      @Value("${app.startup.warmup.timeout:30s}") Duration timeout) {
+    return args -> {
+      if (!enabled) {
+        return;
+      }
+
+      long started = System.currentTimeMillis();
+      String baseUrl = "http://localhost:" + environment.getProperty("local.server.port", "8080");
+      WebClient client = WebClient.create(baseUrl);
+
+      Mono<String> redisPing = Mono.usingWhen(
+          Mono.fromSupplier(connectionFactory::getReactiveConnection),
+          connection -> connection.ping(),
+          connection -> connection.closeLater());
+
+      Flux<Void> authFlows = Flux.range(0, PARALLEL_FLOWS)
+          .flatMap(slot -> Flux.range(0, Math.max(1, iterations / PARALLEL_FLOWS))
+              .concatMap(i -> authFlow(client, DOCUMENT_PREFIX + slot)));
+
+      redisPing
+          .doOnNext(pong -> log.info("Conexión a Redis precalentada: {}", pong))
+          .thenMany(authFlows)
+          .then()
+          .timeout(timeout)
+          .doOnError(e -> log.warn("Calentamiento incompleto: {}", e.getMessage()))
+          .onErrorResume(e -> Mono.empty())
+          .block();
+
+      long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+      log.info("Calentamiento completado en {} ms ({} iteraciones); listo para tráfico a los {} ms de iniciar la JVM",
+          System.currentTimeMillis() - started, iterations, uptime);
+    };
+  }
+
+  /**
+   * Indica si el documento pertenece al tráfico de calentamiento
+   * 
+   * @param documentNumber Número de documento
+   * @return true si lo generó el calentamiento
+   */
+  public static boolean isWarmup(String documentNumber) {
+    return documentNumber != null && documentNumber.startsWith(DOCUMENT_PREFIX);
+  }
+
+  /**
+   * Indica si la sesión la creó el calentamiento
+   * 
+   * @param session Sesión a evaluar
+   * @return true si su documento es de calentamiento
+   */
+  public static boolean isWarmup(WebSession session) {
+    return isWarmup(session.<String>getAttribute("documentNumber"));
+  }
+
+  /**
+   * Ejecuta el flujo de autenticación completo y cierra la sesión creada
+   */
+  @SuppressWarnings("unchecked")
+  private static Mono<Void> authFlow(WebClient client, String documentNumber) {
+    return client.post()
+        .uri(uri -> uri.path("/auth/login")
+            .queryParam("documentNumber", documentNumber)
+            .queryParam("email", documentNumber + "@warmup.local")
+            .build())
+        .exchangeToMono(response -> {
+          ResponseCookie cookie = response.cookies().getFirst(SESSION_COOKIE);
+          return response.bodyToMono(Map.class)
+              .map(body -> Map.entry(cookie != null ? cookie.getValue() : "", String.valueOf(body.get("otp"))));
+        })
+        .flatMap(login -> {
+          String session = login.getKey();
+          return client.post()
+              .uri(uri -> uri.path("/auth/validate").queryParam("otp", login.getValue()).build())
+              .cookie(SESSION_COOKIE, session)
+              .exchangeToMono(response -> response.releaseBody())
+              .then(client.get().uri("/api/hello").cookie(SESSION_COOKIE, session)
+                  .exchangeToMono(response -> response.releaseBody()))
+              .then(client.post().uri("/auth/logout").cookie(SESSION_COOKIE, session)
+                  .exchangeToMono(response -> response.releaseBody()));
+        });
+  }
+}
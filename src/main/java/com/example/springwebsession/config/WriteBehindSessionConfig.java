@@ -0,0 +1,53 @@
+package com.example.springwebsession.config;
+
+import com.example.springwebsession.session.WriteBehindSessionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.session.ReactiveSessionRepository;
+import org.springframework.session.Session;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Persistencia diferida de sesiones (app.session.write-behind.enabled=true)
+ * 
+ * Decora el repositorio de sesiones configurado (SessionConfig o
+ * CompactSessionConfig) y lo expone como repositorio principal para el
+ * WebSessionManager
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "app.session.write-behind", name = "enabled", havingValue = "true")
+public class WriteBehindSessionConfig {
+
+  @Bean(destroyMethod = "close")
+  @Primary
+  public WriteBehindSessionRepository<? extends Session> writeBehindSessionRepository(
+      @Qualifier("sessionRepository") ReactiveSessionRepository<? extends Session> sessionRepository,
+      @Value("${app.session.write-behind.critical-attributes:authenticated,documentNumber,SPRING_SECURITY_CONTEXT}") Set<String> criticalAttributes,
+      @Value("${app.session.write-behind.window:50ms}") Duration window,
+      @Value("${app.session.write-behind.batch-size:500}") int batchSize,
+      @Value("${app.session.write-behind.max-pending:10000}") int maxPending,
+      @Value("${app.session.write-behind.max-attempts:3}") int maxAttempts,
+      MeterRegistry meterRegistry) {
+    log.info("Atributos de sesión con escritura síncrona: {}", criticalAttributes);
+    return create(sessionRepository, criticalAttributes, window, batchSize, maxPending, maxAttempts,
+        meterRegistry);
+  }
+
+  private static <S extends Session> WriteBehindSessionRepository<S> create(ReactiveSessionRepository<S> delegate,
+      Set<String> criticalAttributes, Duration window, int batchSize, int maxPending, int maxAttempts,
+      MeterRegistry meterRegistry) {
+    WriteBehindSessionRepository<S> repository = new WriteBehindSessionRepository<>(delegate, criticalAttributes,
+        window, batchSize, maxPending, maxAttempts, meterRegistry);
+    repository.start();
+    return repository;
+  }
+}
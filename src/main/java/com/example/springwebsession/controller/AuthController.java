@@ -1,6 +1,9 @@
 package com.example.springwebsession.controller;
 
+import com.example.springwebsession.security.OtpAuthenticationCache;
 import com.example.springwebsession.service.OtpService;
+import com.example.springwebsession.service.SessionCardinalityService;
+import com.example.springwebsession.service.SessionTtlPolicy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -24,6 +27,9 @@ import java.util.Map;
 public class AuthController {
 
   private final OtpService otpService;
+  private final SessionCardinalityService cardinalityService;
+  private final SessionTtlPolicy ttlPolicy;
+  private final OtpAuthenticationCache authenticationCache;
 
   /**
    * Endpoint de login que recibe número de documento y email Genera un OTP y lo
@@ -41,10 +47,18 @@ public class AuthController {
     log.info("Iniciando login para documento: {} y email: {}", documentNumber, email);
 
     return exchange.getSession().flatMap(session -> {
+      boolean starting = !session.isStarted();
+
       // Almacenar datos en la sesión
       session.getAttributes().put("documentNumber", documentNumber);
       session.getAttributes().put("email", email);
       session.getAttributes().put("loginTime", LocalDateTime.now());
+      if (starting) {
+        ttlPolicy.onSessionStarted(session);
+      }
+      cardinalityService.recordSession(session);
+      // Sesión pendiente de OTP: expira junto con el OTP si no se valida
+      ttlPolicy.apply(session);
 
       return session.save();
     }).then(otpService.generateOtp(documentNumber)).flatMap(otp -> exchange.getSession().flatMap(session -> {
@@ -57,7 +71,7 @@ public class AuthController {
       response.put("otp", otp); // En producción, esto se enviaría por email/SMS
       response.put("documentNumber", documentNumber);
       response.put("email", email);
-      response.put("expiresIn", "5 minutos");
+      response.put("expiresIn", OtpService.OTP_EXPIRY.toMinutes() + " minutos");
       response.put("timestamp", LocalDateTime.now());
 
       log.info("Login exitoso para documento: {} - OTP: {}", documentNumber, otp);
@@ -131,6 +145,8 @@ public class AuthController {
     return exchange.getSession().flatMap(session -> {
       String documentNumber = (String) session.getAttributes().get("documentNumber");
       log.info("Cerrando sesión para documento: {}", documentNumber);
+      authenticationCache.evict(documentNumber);
+      ttlPolicy.onSessionEnded(session);
 
       return session.invalidate();
     }).then(Mono.fromCallable(() -> {
@@ -1,16 +1,27 @@
 package com.example.springwebsession.controller;
 
+import com.example.springwebsession.dto.SessionBatchRequest;
+import com.example.springwebsession.service.SessionTtlPolicy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -19,8 +30,11 @@ import java.util.Map;
 @Slf4j
 @RestController
 @RequestMapping("/api/session")
+@RequiredArgsConstructor
 public class SessionController {
 
+  private final SessionTtlPolicy ttlPolicy;
+
   /**
    * Obtiene información de la sesión actual
    * 
@@ -64,6 +78,9 @@ public class SessionController {
     log.info("Estableciendo atributo de sesión: {} = {}", key, value);
 
     return exchange.getSession().flatMap(session -> {
+      if (!session.isStarted()) {
+        ttlPolicy.onSessionStarted(session);
+      }
       session.getAttributes().put(key, value);
       return session.save();
     }).then(Mono.fromCallable(() -> {
@@ -133,6 +150,95 @@ public class SessionController {
     }));
   }
 
+  /**
+   * Aplica en lote operaciones de obtención, establecimiento y eliminación de
+   * atributos sobre la sesión actual. Todas las modificaciones se aplican sobre
+   * la misma sesión cargada y se persisten con un único save(); si la petición
+   * es de solo lectura no se escribe en Redis
+   * 
+   * @param request  Operaciones a aplicar (get, set, remove)
+   * @param exchange ServerWebExchange para acceder a la sesión
+   * @return Valores obtenidos y resumen de las modificaciones
+   */
+  @PostMapping("/batch")
+  public Mono<Map<String, Object>> batchSessionAttributes(@RequestBody SessionBatchRequest request,
+      ServerWebExchange exchange) {
+
+    List<String> getKeys = request.getGet() != null ? request.getGet() : List.of();
+    Map<String, String> setAttributes = request.getSet() != null ? request.getSet() : Map.of();
+    List<String> removeKeys = request.getRemove() != null ? request.getRemove() : List.of();
+
+    log.info("Operación en lote sobre sesión: get={}, set={}, remove={}", getKeys.size(), setAttributes.size(),
+        removeKeys.size());
+
+    for (String key : removeKeys) {
+      if (setAttributes.containsKey(key)) {
+        return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+            "La clave '" + key + "' no puede establecerse y eliminarse en la misma operación"));
+      }
+    }
+
+    return exchange.getSession().flatMap(session -> {
+      if (!session.isStarted() && !setAttributes.isEmpty()) {
+        ttlPolicy.onSessionStarted(session);
+      }
+      Map<String, Object> attributes = session.getAttributes();
+
+      List<String> removed = new ArrayList<>();
+      for (String key : removeKeys) {
+        if (attributes.remove(key) != null) {
+          removed.add(key);
+        }
+      }
+      attributes.putAll(setAttributes);
+
+      Map<String, Object> values = new LinkedHashMap<>();
+      for (String key : getKeys) {
+        values.put(key, attributes.get(key));
+      }
+
+      Map<String, Object> response = new HashMap<>();
+      response.put("values", values);
+      response.put("set", setAttributes.keySet());
+      response.put("removed", removed);
+      response.put("timestamp", LocalDateTime.now());
+
+      Mono<Void> persist = request.hasWrites() ? session.save() : Mono.empty();
+      return persist.thenReturn(response);
+    });
+  }
+
+  /**
+   * Obtiene los atributos de la sesión como un flujo de objetos JSON
+   * delimitados por línea (NDJSON), un atributo por línea
+   * 
+   * @param keys     Claves a obtener; si se omite se devuelven todos los
+   *                 atributos
+   * @param exchange ServerWebExchange para acceder a la sesión
+   * @return Flujo de pares clave - valor
+   */
+  @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public Flux<Map<String, Object>> streamSessionAttributes(@RequestParam(required = false) List<String> keys,
+      ServerWebExchange exchange) {
+
+    log.info("Obteniendo atributos de sesión en streaming: {}", keys != null ? keys : "todos");
+
+    return exchange.getSession().flatMapMany(session -> {
+      Map<String, Object> attributes = session.getAttributes();
+      Flux<String> selected = keys != null && !keys.isEmpty()
+          ? Flux.fromIterable(keys)
+          : Flux.fromIterable(new ArrayList<>(attributes.keySet()));
+
+      return selected.map(key -> {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("key", key);
+        entry.put("value", attributes.get(key));
+        entry.put("found", attributes.containsKey(key));
+        return entry;
+      });
+    });
+  }
+
   /**
    * Invalida la sesión actual
    * 
@@ -145,6 +251,7 @@ public class SessionController {
 
     return exchange.getSession().flatMap(session -> {
       log.info("Invalidando sesión: {}", session.getId());
+      ttlPolicy.onSessionEnded(session);
       return session.invalidate();
     }).then(Mono.fromCallable(() -> {
       Map<String, Object> response = new HashMap<>();
@@ -0,0 +1,40 @@
+package com.example.springwebsession.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Petición de operaciones en lote sobre los atributos de la sesión
+ * Las operaciones se aplican en orden: remove, set y finalmente get
+ */
+@Data
+public class SessionBatchRequest {
+
+  /**
+   * Claves de los atributos a obtener
+   */
+  private List<String> get = new ArrayList<>();
+
+  /**
+   * Atributos a establecer (clave - valor)
+   */
+  private Map<String, String> set = new LinkedHashMap<>();
+
+  /**
+   * Claves de los atributos a eliminar
+   */
+  private List<String> remove = new ArrayList<>();
+
+  /**
+   * Indica si la petición modifica la sesión
+   * 
+   * @return true si hay atributos para establecer o eliminar
+   */
+  public boolean hasWrites() {
+    return (set != null && !set.isEmpty()) || (remove != null && !remove.isEmpty());
+  }
+}
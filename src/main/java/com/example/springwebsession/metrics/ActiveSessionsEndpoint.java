@@ -0,0 +1,67 @@
+package com.example.springwebsession.metrics;
+
+import com.example.springwebsession.service.SessionCardinalityService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Endpoint de Actuator (/actuator/activesessions) con la estimación de
+ * sesiones activas y usuarios distintos por minuto, hora y día
+ */
+@Component
+@Endpoint(id = "activesessions")
+@RequiredArgsConstructor
+public class ActiveSessionsEndpoint {
+
+  private final SessionCardinalityService cardinalityService;
+
+  /**
+   * Devuelve las estimaciones para todas las ventanas
+   * 
+   * @return Estimaciones por ventana
+   */
+  @ReadOperation
+  public Mono<Map<String, Object>> activeSessions() {
+    return cardinalityService.snapshot().map(windows -> {
+      Map<String, Object> response = new LinkedHashMap<>(windows);
+      response.put("timestamp", LocalDateTime.now());
+      return response;
+    });
+  }
+
+  /**
+   * Devuelve las estimaciones para una ventana concreta
+   * 
+   * @param window minute, hour o day
+   * @return Estimaciones de la ventana
+   * @throws InvalidEndpointRequestException (400) si la ventana no existe
+   */
+  @ReadOperation
+  public Mono<Map<String, Object>> activeSessionsForWindow(@Selector String window) {
+    SessionCardinalityService.Window selected;
+    try {
+      selected = SessionCardinalityService.Window.valueOf(window.toUpperCase());
+    } catch (IllegalArgumentException ex) {
+      String reason = "Ventana desconocida: " + window + " (valores: minute, hour, day)";
+      throw new InvalidEndpointRequestException(reason, reason);
+    }
+    return Mono.zip(cardinalityService.countSessions(selected), cardinalityService.countUsers(selected))
+        .map(counts -> {
+          Map<String, Object> response = new LinkedHashMap<>();
+          response.put("window", window.toLowerCase());
+          response.put("sessions", counts.getT1());
+          response.put("users", counts.getT2());
+          response.put("timestamp", LocalDateTime.now());
+          return response;
+        });
+  }
+}
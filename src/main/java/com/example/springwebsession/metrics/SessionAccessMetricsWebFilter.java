@@ -0,0 +1,56 @@
+package com.example.springwebsession.metrics;
+
+import com.example.springwebsession.service.SessionCardinalityService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.server.WebSession;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Filtro que registra cada acceso a una sesión iniciada en el estimador de
+ * sesiones activas
+ * 
+ * Solo observa las sesiones que la petición resuelve por sí misma (seguridad o
+ * controladores): no llama a getSession() por su cuenta, de modo que una
+ * petición que no usa la sesión no provoca una lectura extra en Redis. Se
+ * ejecuta antes de la cadena de Spring Security (-100) para ver también sus
+ * accesos a la sesión
+ */
+@Component
+@RequiredArgsConstructor
+public class SessionAccessMetricsWebFilter implements WebFilter, Ordered {
+
+  public static final int ORDER = -150;
+
+  private final SessionCardinalityService cardinalityService;
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    AtomicReference<WebSession> resolved = new AtomicReference<>();
+    ServerWebExchange observed = new ServerWebExchangeDecorator(exchange) {
+      @Override
+      public Mono<WebSession> getSession() {
+        return super.getSession().doOnNext(resolved::set);
+      }
+    };
+
+    return chain.filter(observed).doFinally(signal -> {
+      WebSession session = resolved.get();
+      if (session != null && session.isStarted()) {
+        cardinalityService.recordSession(session);
+      }
+    });
+  }
+
+  @Override
+  public int getOrder() {
+    return ORDER;
+  }
+}
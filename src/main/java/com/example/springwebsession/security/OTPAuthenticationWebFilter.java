@@ -1,20 +1,19 @@
 package com.example.springwebsession.security;
 
 import com.example.springwebsession.service.OtpService;
+import com.example.springwebsession.service.SessionCardinalityService;
+import com.example.springwebsession.service.SessionTtlPolicy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
 import org.springframework.security.web.server.authentication.ServerAuthenticationConverter;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebSession;
 import reactor.core.publisher.Mono;
 
-import java.util.Collections;
-
 /**
  * Filtro de autenticación que maneja:
  * 1. Validación de OTP en /auth/validate
@@ -26,10 +25,12 @@ public class OTPAuthenticationWebFilter extends AuthenticationWebFilter {
 
   private final OtpService otpService;
 
-  public OTPAuthenticationWebFilter(OtpService otpService) {
+  public OTPAuthenticationWebFilter(OtpService otpService, SessionCardinalityService cardinalityService,
+      SessionTtlPolicy ttlPolicy, OtpAuthenticationCache authenticationCache) {
     super(createAuthenticationManager());
     this.otpService = otpService;
-    setServerAuthenticationConverter(createAuthenticationConverter(otpService));
+    setServerAuthenticationConverter(
+        createAuthenticationConverter(otpService, cardinalityService, ttlPolicy, authenticationCache));
   }
 
   /**
@@ -50,28 +51,34 @@ public class OTPAuthenticationWebFilter extends AuthenticationWebFilter {
    * 1. Validación de OTP en /auth/validate
    * 2. Verificación de autenticación en endpoints protegidos
    * 
-   * @param otpService Servicio OTP
+   * @param otpService         Servicio OTP
+   * @param cardinalityService Estimador de sesiones y usuarios activos
+   * @param ttlPolicy           Política de TTL de sesiones
+   * @param authenticationCache Caché de Authentication por principal
    * @return ServerAuthenticationConverter
    */
-  private static ServerAuthenticationConverter createAuthenticationConverter(OtpService otpService) {
+  private static ServerAuthenticationConverter createAuthenticationConverter(OtpService otpService,
+      SessionCardinalityService cardinalityService, SessionTtlPolicy ttlPolicy,
+      OtpAuthenticationCache authenticationCache) {
     return exchange -> {
       String path = exchange.getRequest().getURI().getPath();
       log.info("Procesando autenticación para: {}", path);
 
       return exchange.getSession()
           .flatMap(session -> {
-            String documentNumber = (String) session.getAttributes().get("documentNumber");
-            Boolean authenticated = (Boolean) session.getAttributes().get("authenticated");
+            String documentNumber = session.getAttribute("documentNumber");
+            boolean authenticated = Boolean.TRUE.equals(session.getAttribute("authenticated"));
 
             // 1. Si es /auth/validate - validar OTP y marcar como autenticado
             if ("/auth/validate".equals(path)) {
-              return handleOtpValidation(exchange, session, documentNumber, otpService);
+              return handleOtpValidation(exchange, session, documentNumber, otpService, cardinalityService,
+                  ttlPolicy, authenticationCache);
             }
 
             // 2. Para endpoints protegidos - solo verificar si está autenticado
-            if (authenticated != null && authenticated && documentNumber != null) {
+            if (authenticated && documentNumber != null) {
               log.info("Usuario autenticado accediendo a: {} (documento: {})", path, documentNumber);
-              return Mono.just(createAuthentication(documentNumber));
+              return Mono.just(authenticationCache.get(documentNumber));
             }
 
             log.warn("Usuario no autenticado intentando acceder a: {}", path);
@@ -85,9 +92,12 @@ public class OTPAuthenticationWebFilter extends AuthenticationWebFilter {
    * Maneja la validación de OTP para /auth/validate
    */
   private static Mono<Authentication> handleOtpValidation(ServerWebExchange exchange,
-      org.springframework.web.server.WebSession session,
+      WebSession session,
       String documentNumber,
-      OtpService otpService) {
+      OtpService otpService,
+      SessionCardinalityService cardinalityService,
+      SessionTtlPolicy ttlPolicy,
+      OtpAuthenticationCache authenticationCache) {
     // Obtener OTP de los parámetros de query
     String otp = exchange.getRequest().getQueryParams().getFirst("otp");
 
@@ -110,26 +120,16 @@ public class OTPAuthenticationWebFilter extends AuthenticationWebFilter {
             session.getAttributes().put("authenticated", true);
             session.getAttributes().put("authTime", java.time.LocalDateTime.now());
             session.getAttributes().remove("otp"); // Limpiar OTP usado
+            ttlPolicy.apply(session); // Pasa al TTL deslizante de sesión autenticada
+            cardinalityService.recordUser(documentNumber);
+            cardinalityService.recordSession(session);
 
             log.info("Autenticación OTP exitosa para documento: {}", documentNumber);
-            return Mono.just(createAuthentication(documentNumber));
+            return Mono.just(authenticationCache.get(documentNumber));
           } else {
             log.warn("OTP inválido para documento: {}", documentNumber);
             return Mono.error(new BadCredentialsException("Invalid or expired OTP"));
           }
         });
   }
-
-  /**
-   * Crea una autenticación exitosa
-   * 
-   * @param documentNumber Número de documento
-   * @return Authentication
-   */
-  private static Authentication createAuthentication(String documentNumber) {
-    return new UsernamePasswordAuthenticationToken(
-        documentNumber,
-        null,
-        Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
-  }
 }
@@ -0,0 +1,77 @@
+package com.example.springwebsession.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.core.Authentication;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caché de Authentication por principal
+ * 
+ * Cada petición autenticada reutiliza el mismo OtpAuthenticationToken
+ * inmutable (y su lista de autoridades) en lugar de construir uno nuevo. El
+ * tamaño está acotado con expulsión LRU, y el logout elimina la entrada del
+ * principal
+ */
+public class OtpAuthenticationCache {
+
+  // LinkedHashMap en orden de acceso: la entrada menos usada recientemente se
+  // descarta al superar el máximo
+  private final Map<String, Authentication> cache;
+  private final Counter hits;
+  private final Counter misses;
+
+  public OtpAuthenticationCache(int maxSize, MeterRegistry meterRegistry) {
+    this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Authentication> eldest) {
+        return size() > maxSize;
+      }
+    };
+    this.hits = Counter.builder("security.authentication.cache")
+        .description("Authentication resueltos desde la caché por principal")
+        .tag("result", "hit")
+        .register(meterRegistry);
+    this.misses = Counter.builder("security.authentication.cache")
+        .description("Authentication resueltos desde la caché por principal")
+        .tag("result", "miss")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Obtiene el Authentication del principal, creándolo si no está en caché
+   * 
+   * @param documentNumber Número de documento del usuario autenticado
+   * @return Authentication compartido
+   */
+  public Authentication get(String documentNumber) {
+    synchronized (cache) {
+      Authentication cached = cache.get(documentNumber);
+      if (cached != null) {
+        hits.increment();
+        return cached;
+      }
+
+      misses.increment();
+      Authentication created = new OtpAuthenticationToken(documentNumber);
+      cache.put(documentNumber, created);
+      return created;
+    }
+  }
+
+  /**
+   * Elimina el Authentication del principal (logout)
+   * 
+   * @param documentNumber Número de documento del usuario
+   */
+  public void evict(String documentNumber) {
+    if (documentNumber == null) {
+      return;
+    }
+    synchronized (cache) {
+      cache.remove(documentNumber);
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package com.example.springwebsession.security;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+/**
+ * Authentication inmutable de un usuario que validó su OTP
+ * 
+ * Se comparte entre todas las peticiones del mismo principal (ver
+ * OtpAuthenticationCache), por lo que no admite cambios después de crearse
+ */
+public final class OtpAuthenticationToken extends AbstractAuthenticationToken {
+
+  private final String documentNumber;
+
+  OtpAuthenticationToken(String documentNumber) {
+    super(AuthorityUtils.createAuthorityList("ROLE_USER"));
+    this.documentNumber = documentNumber;
+    super.setAuthenticated(true);
+  }
+
+  @Override
+  public Object getCredentials() {
+    return null;
+  }
+
+  @Override
+  public Object getPrincipal() {
+    return documentNumber;
+  }
+
+  @Override
+  public void setAuthenticated(boolean authenticated) {
+    throw new UnsupportedOperationException("OtpAuthenticationToken es inmutable");
+  }
+
+  @Override
+  public void setDetails(Object details) {
+    throw new UnsupportedOperationException("OtpAuthenticationToken es inmutable");
+  }
+}
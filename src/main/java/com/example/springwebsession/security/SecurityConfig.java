@@ -1,8 +1,12 @@
 package com.example.springwebsession.security;
 
 import com.example.springwebsession.service.OtpService;
+import com.example.springwebsession.service.SessionCardinalityService;
+import com.example.springwebsession.service.SessionTtlPolicy;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
@@ -24,27 +28,46 @@ import org.springframework.security.web.server.util.matcher.ServerWebExchangeMat
 public class SecurityConfig {
 
   private final OtpService otpService;
+  private final SessionCardinalityService cardinalityService;
+  private final SessionTtlPolicy ttlPolicy;
 
   @Bean
   public ServerSecurityContextRepository securityContextRepository() {
     return new WebSessionServerSecurityContextRepository();
   }
 
+  /**
+   * Caché de Authentication por principal usada por el filtro OTP
+   * 
+   * @param meterRegistry Registro de métricas
+   * @param maxSize       Número máximo de principales en caché
+   * @return OtpAuthenticationCache
+   */
+  @Bean
+  public OtpAuthenticationCache otpAuthenticationCache(MeterRegistry meterRegistry,
+      @Value("${app.security.authentication-cache.max-size:10000}") int maxSize) {
+    return new OtpAuthenticationCache(maxSize, meterRegistry);
+  }
+
   // ReactiveAuthenticationManager eliminado - ahora se maneja en
   // OTPAuthenticationWebFilter
 
   /**
    * Configura la cadena de filtros de seguridad reactiva
    * 
-   * @param http ServerHttpSecurity para configurar la seguridad reactiva
+   * @param http                ServerHttpSecurity para configurar la seguridad
+   *                            reactiva
+   * @param authenticationCache Caché de Authentication por principal
    * @return SecurityWebFilterChain configurada
    */
   @Bean
-  public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+  public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+      OtpAuthenticationCache authenticationCache) {
     log.info("Configurando cadena de filtros de seguridad reactiva con OTP simplificado");
 
     // Crear filtro de autenticación OTP simplificado
-    OTPAuthenticationWebFilter otpFilter = new OTPAuthenticationWebFilter(otpService);
+    OTPAuthenticationWebFilter otpFilter = new OTPAuthenticationWebFilter(otpService, cardinalityService, ttlPolicy,
+        authenticationCache);
 
     // ✅ CONFIGURAR MATCHER - Procesar /auth/validate y endpoints protegidos
     otpFilter.setRequiresAuthenticationMatcher(
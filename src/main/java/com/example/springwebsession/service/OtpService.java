@@ -5,6 +5,7 @@ import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
 import java.security.SecureRandom;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -19,7 +20,11 @@ public class OtpService {
   private final Map<String, OtpData> otpStorage = new ConcurrentHashMap<>();
   private final SecureRandom random = new SecureRandom();
   private static final int OTP_LENGTH = 6;
-  private static final int OTP_EXPIRY_MINUTES = 5;
+
+  /**
+   * Vigencia del OTP; las sesiones pendientes de OTP expiran con él
+   */
+  public static final Duration OTP_EXPIRY = Duration.ofMinutes(5);
 
   /**
    * Genera un código OTP para un número de documento
@@ -31,7 +36,7 @@ public class OtpService {
     log.info("Generando OTP para documento: {}", documentNumber);
 
     String otp = generateRandomOtp();
-    LocalDateTime expiryTime = LocalDateTime.now().plusMinutes(OTP_EXPIRY_MINUTES);
+    LocalDateTime expiryTime = LocalDateTime.now().plus(OTP_EXPIRY);
 
     OtpData otpData = new OtpData(otp, documentNumber, expiryTime);
     otpStorage.put(documentNumber, otpData);
@@ -0,0 +1,241 @@
+package com.example.springwebsession.service;
+
+import com.example.springwebsession.config.StartupWarmupConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.WebSession;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Servicio que estima la cantidad de sesiones activas y de usuarios
+ * autenticados distintos mediante HyperLogLog en Redis (PFADD/PFCOUNT)
+ * 
+ * Cada ventana es deslizante: se divide en buckets (10 s para el minuto, 1 min
+ * para la hora y 1 h para el día) y la estimación es el PFCOUNT de los últimos
+ * buckets que la cubren, que Redis devuelve como la unión de todos ellos. Como
+ * todos los nodos escriben sobre las mismas claves, el valor ya está combinado
+ * entre nodos sin necesidad de recorrer el namespace de sesiones. Las sesiones
+ * y usuarios del calentamiento de arranque no se registran
+ */
+@Slf4j
+@Service
+public class SessionCardinalityService {
+
+  /**
+   * Ventanas de tiempo deslizantes soportadas
+   */
+  public enum Window {
+    MINUTE("10s", Duration.ofSeconds(10), 6),
+    HOUR("m", Duration.ofMinutes(1), 60),
+    DAY("h", Duration.ofHours(1), 24);
+
+    private final String code;
+    private final Duration bucketLength;
+    private final int buckets;
+
+    Window(String code, Duration bucketLength, int buckets) {
+      this.code = code;
+      this.bucketLength = bucketLength;
+      this.buckets = buckets;
+    }
+
+    long bucket(Instant now) {
+      return now.getEpochSecond() / bucketLength.getSeconds();
+    }
+
+    /**
+     * Un bucket debe seguir existiendo mientras forme parte de la ventana
+     */
+    Duration bucketTtl() {
+      return bucketLength.multipliedBy(buckets + 1L);
+    }
+  }
+
+  private static final String SESSIONS = "sessions";
+  private static final String USERS = "users";
+
+  private final ReactiveStringRedisTemplate redisTemplate;
+  private final MeterRegistry meterRegistry;
+  private final String keyPrefix;
+
+  private final Map<Window, AtomicLong> sessionEstimates = new EnumMap<>(Window.class);
+  private final Map<Window, AtomicLong> userEstimates = new EnumMap<>(Window.class);
+
+  // Evita repetir PFADD para el mismo elemento dentro del mismo bucket de 10 s
+  // en este nodo; se descarta completo al cambiar de bucket
+  private final AtomicReference<RecentlySeen> recentlySeen = new AtomicReference<>(new RecentlySeen(-1));
+
+  public SessionCardinalityService(ReactiveStringRedisTemplate redisTemplate, MeterRegistry meterRegistry,
+      @Value("${app.session.metrics.key-prefix:spring:demo:metrics:hll}") String keyPrefix) {
+    this.redisTemplate = redisTemplate;
+    this.meterRegistry = meterRegistry;
+    this.keyPrefix = keyPrefix;
+    for (Window window : Window.values()) {
+      sessionEstimates.put(window, new AtomicLong());
+      userEstimates.put(window, new AtomicLong());
+    }
+  }
+
+  @PostConstruct
+  void registerGauges() {
+    for (Window window : Window.values()) {
+      String tag = window.name().toLowerCase();
+      Gauge.builder("session.active.estimate", sessionEstimates.get(window), AtomicLong::get)
+          .description("Sesiones activas estimadas (HyperLogLog)")
+          .tag("window", tag)
+          .register(meterRegistry);
+      Gauge.builder("session.users.estimate", userEstimates.get(window), AtomicLong::get)
+          .description("Usuarios autenticados distintos estimados (HyperLogLog)")
+          .tag("window", tag)
+          .register(meterRegistry);
+    }
+  }
+
+  /**
+   * Registra el acceso a una sesión
+   * 
+   * @param session Sesión accedida
+   */
+  public void recordSession(WebSession session) {
+    if (!StartupWarmupConfig.isWarmup(session)) {
+      record(SESSIONS, session.getId());
+    }
+  }
+
+  /**
+   * Registra un usuario autenticado
+   * 
+   * @param documentNumber Número de documento del usuario
+   */
+  public void recordUser(String documentNumber) {
+    if (!StartupWarmupConfig.isWarmup(documentNumber)) {
+      record(USERS, documentNumber);
+    }
+  }
+
+  /**
+   * Estima el número de sesiones activas en la ventana actual
+   * 
+   * @param window Ventana de tiempo
+   * @return Cardinalidad estimada
+   */
+  public Mono<Long> countSessions(Window window) {
+    return count(SESSIONS, window);
+  }
+
+  /**
+   * Estima el número de usuarios autenticados distintos en la ventana actual
+   * 
+   * @param window Ventana de tiempo
+   * @return Cardinalidad estimada
+   */
+  public Mono<Long> countUsers(Window window) {
+    return count(USERS, window);
+  }
+
+  /**
+   * Obtiene todas las estimaciones agrupadas por ventana
+   * 
+   * @return Map con sesiones y usuarios por ventana
+   */
+  public Mono<Map<String, Object>> snapshot() {
+    return Flux.fromArray(Window.values())
+        .concatMap(window -> Mono.zip(countSessions(window), countUsers(window))
+            .map(counts -> {
+              Map<String, Object> entry = new LinkedHashMap<>();
+              entry.put("sessions", counts.getT1());
+              entry.put("users", counts.getT2());
+              return Map.entry(window.name().toLowerCase(), (Object) entry);
+            }))
+        .collectMap(Map.Entry::getKey, Map.Entry::getValue, LinkedHashMap::new);
+  }
+
+  /**
+   * Actualiza periódicamente los valores expuestos como gauges de Actuator
+   */
+  @Scheduled(fixedDelayString = "${app.session.metrics.refresh-interval-ms:30000}")
+  public void refreshGauges() {
+    Flux.fromArray(Window.values())
+        .concatMap(window -> Mono.zip(countSessions(window), countUsers(window))
+            .doOnNext(counts -> {
+              sessionEstimates.get(window).set(counts.getT1());
+              userEstimates.get(window).set(counts.getT2());
+            }))
+        .onErrorResume(e -> {
+          log.warn("No se pudieron actualizar las métricas de cardinalidad: {}", e.getMessage());
+          return Mono.empty();
+        })
+        .subscribe();
+  }
+
+  private void record(String type, String value) {
+    if (value == null) {
+      return;
+    }
+
+    Instant now = Instant.now();
+    if (!markSeen(Window.MINUTE.bucket(now), type + ":" + value)) {
+      return;
+    }
+
+    Flux.fromArray(Window.values())
+        .flatMap(window -> {
+          String key = key(type, window, window.bucket(now));
+          return redisTemplate.opsForHyperLogLog().add(key, value)
+              .then(redisTemplate.expire(key, window.bucketTtl()));
+        })
+        .onErrorResume(e -> {
+          log.warn("No se pudo registrar {} en HyperLogLog: {}", type, e.getMessage());
+          return Mono.empty();
+        })
+        .subscribe();
+  }
+
+  private Mono<Long> count(String type, Window window) {
+    long current = window.bucket(Instant.now());
+    String[] keys = new String[window.buckets];
+    for (int i = 0; i < window.buckets; i++) {
+      keys[i] = key(type, window, current - i);
+    }
+    return redisTemplate.opsForHyperLogLog().size(keys);
+  }
+
+  private boolean markSeen(long bucket, String element) {
+    RecentlySeen current = recentlySeen.get();
+    if (current.bucket != bucket) {
+      RecentlySeen fresh = new RecentlySeen(bucket);
+      current = recentlySeen.compareAndSet(current, fresh) ? fresh : recentlySeen.get();
+    }
+    return current.elements.add(element);
+  }
+
+  private String key(String type, Window window, long bucket) {
+    return keyPrefix + ":" + type + ":" + window.code + ":" + bucket;
+  }
+
+  private static final class RecentlySeen {
+    private final long bucket;
+    private final Set<String> elements = ConcurrentHashMap.newKeySet();
+
+    private RecentlySeen(long bucket) {
+      this.bucket = bucket;
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package com.example.springwebsession.service;
+
+import com.example.springwebsession.config.StartupWarmupConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.WebSession;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Política de expiración de sesiones según su estado
+ * 
+ * - ANONYMOUS: sesiones sin login (por ejemplo /api/session)
+ * - PENDING_OTP: login iniciado pero OTP aún no validado, viven lo mismo que
+ * el OTP ({@link OtpService#OTP_EXPIRY})
+ * - AUTHENTICATED: OTP validado, expiración deslizante larga
+ * 
+ * Las sesiones del calentamiento de arranque reciben su TTL pero no cuentan en
+ * las métricas
+ */
+@Slf4j
+@Service
+public class SessionTtlPolicy {
+
+  /**
+   * Estados de sesión con TTL propio
+   */
+  public enum SessionState {
+    ANONYMOUS, PENDING_OTP, AUTHENTICATED
+  }
+
+  private final Map<SessionState, Duration> ttls = new EnumMap<>(SessionState.class);
+  private final Map<SessionState, Counter> assignedCounters = new EnumMap<>(SessionState.class);
+  // Segundos de TTL recortados por minuto de creación de la sesión; un minuto se
+  // descarta cuando sus sesiones habrían expirado también con el TTL autenticado
+  private final ConcurrentHashMap<Long, DoubleAdder> savedSecondsByMinute = new ConcurrentHashMap<>();
+
+  public SessionTtlPolicy(MeterRegistry meterRegistry,
+      @Value("${app.session.ttl.anonymous:10m}") Duration anonymousTtl,
+      @Value("${app.session.ttl.authenticated:30m}") Duration authenticatedTtl) {
+    ttls.put(SessionState.ANONYMOUS, anonymousTtl);
+    ttls.put(SessionState.PENDING_OTP, OtpService.OTP_EXPIRY);
+    ttls.put(SessionState.AUTHENTICATED, authenticatedTtl);
+
+    for (SessionState state : SessionState.values()) {
+      assignedCounters.put(state, Counter.builder("session.ttl.assigned")
+          .description("Sesiones a las que se asignó el TTL de su estado")
+          .tag("state", state.name().toLowerCase())
+          .register(meterRegistry));
+    }
+    // Suma de (TTL autenticado - TTL actual) de las sesiones creadas dentro del
+    // último TTL autenticado. Se descuenta al autenticarse o borrarse la sesión y
+    // decae al envejecer; mide segundos de TTL, no memoria
+    Gauge.builder("session.ttl.saved", this, SessionTtlPolicy::savedSeconds)
+        .description("Segundos de TTL recortados frente al TTL de sesión autenticada, "
+            + "sesiones creadas dentro del último TTL autenticado")
+        .baseUnit("seconds")
+        .register(meterRegistry);
+  }
+
+  /**
+   * TTL por defecto para sesiones nuevas
+   * 
+   * @return TTL de sesiones anónimas
+   */
+  public Duration defaultTtl() {
+    return ttls.get(SessionState.ANONYMOUS);
+  }
+
+  /**
+   * Determina el estado de la sesión a partir de sus atributos
+   * 
+   * @param session Sesión a evaluar
+   * @return Estado de la sesión
+   */
+  public SessionState resolveState(WebSession session) {
+    if (Boolean.TRUE.equals(session.getAttribute("authenticated"))) {
+      return SessionState.AUTHENTICATED;
+    }
+    if (session.getAttribute("documentNumber") != null) {
+      return SessionState.PENDING_OTP;
+    }
+    return SessionState.ANONYMOUS;
+  }
+
+  /**
+   * Registra una sesión que se inicia (primera escritura) con el TTL por
+   * defecto. Debe llamarse antes de apply() cuando la petición inicia la sesión
+   * 
+   * @param session Sesión que se inicia
+   */
+  public void onSessionStarted(WebSession session) {
+    if (StartupWarmupConfig.isWarmup(session)) {
+      return;
+    }
+    assignedCounters.get(SessionState.ANONYMOUS).increment();
+    credit(session, ttls.get(SessionState.AUTHENTICATED).minus(session.getMaxIdleTime()));
+  }
+
+  /**
+   * Descuenta el recorte de TTL de una sesión que se borra (logout o
+   * invalidate)
+   * 
+   * @param session Sesión que se borra
+   */
+  public void onSessionEnded(WebSession session) {
+    if (!session.isStarted() || StartupWarmupConfig.isWarmup(session)) {
+      return;
+    }
+    credit(session, session.getMaxIdleTime().minus(ttls.get(SessionState.AUTHENTICATED)));
+  }
+
+  /**
+   * Asigna a la sesión el TTL correspondiente a su estado actual. El cambio se
+   * persiste con el siguiente save() de la sesión
+   * 
+   * @param session Sesión a actualizar
+   * @return Estado aplicado
+   */
+  public SessionState apply(WebSession session) {
+    SessionState state = resolveState(session);
+    Duration ttl = ttls.get(state);
+
+    Duration previous = session.getMaxIdleTime();
+    if (!ttl.equals(previous)) {
+      session.setMaxIdleTime(ttl);
+      if (StartupWarmupConfig.isWarmup(session)) {
+        return state;
+      }
+      assignedCounters.get(state).increment();
+      // Negativo al pasar a autenticada: devuelve el ahorro acreditado antes
+      credit(session, previous.minus(ttl));
+      log.debug("TTL de sesión {} ajustado a {} (estado: {})", session.getId(), ttl, state);
+    }
+    return state;
+  }
+
+  private void credit(WebSession session, Duration seconds) {
+    long minute = session.getCreationTime().getEpochSecond() / 60;
+    if (minute < oldestTrackedMinute()) {
+      return;
+    }
+    savedSecondsByMinute.computeIfAbsent(minute, key -> new DoubleAdder()).add(seconds.getSeconds());
+  }
+
+  private double savedSeconds() {
+    long oldest = oldestTrackedMinute();
+    savedSecondsByMinute.keySet().removeIf(minute -> minute < oldest);
+    return savedSecondsByMinute.values().stream().mapToDouble(DoubleAdder::sum).sum();
+  }
+
+  private long oldestTrackedMinute() {
+    return (Instant.now().getEpochSecond() - ttls.get(SessionState.AUTHENTICATED).getSeconds()) / 60;
+  }
+}
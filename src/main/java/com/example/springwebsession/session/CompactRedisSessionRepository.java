@@ -0,0 +1,366 @@
+package com.example.springwebsession.session;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.session.MapSession;
+import org.springframework.session.ReactiveSessionRepository;
+import org.springframework.session.Session;
+import reactor.core.publisher.Mono;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Repositorio de sesiones en Redis con un formato de almacenamiento compacto
+ * 
+ * - Claves: {namespace}:s:{id}, con IDs de 16 bytes aleatorios en base64url
+ * (22 caracteres frente a los 36 de un UUID)
+ * - Campos y valores codificados con SessionFieldCodec
+ * 
+ * Las sesiones que aún están en el formato de Spring Session
+ * ({namespace}:sessions:{id}, campos sessionAttr:*) se siguen leyendo y se
+ * reescriben en el formato compacto en su siguiente save()
+ * 
+ * Las lecturas concurrentes de una misma sesión comparten un único HGETALL
+ * (SingleFlight); cada petición decodifica su propia copia de la sesión a
+ * partir de los bytes compartidos
+ */
+@Slf4j
+public class CompactRedisSessionRepository
+    implements ReactiveSessionRepository<CompactRedisSessionRepository.CompactSession> {
+
+  private static final String LEGACY_CREATION_TIME = "creationTime";
+  private static final String LEGACY_LAST_ACCESSED_TIME = "lastAccessedTime";
+  private static final String LEGACY_MAX_INACTIVE_INTERVAL = "maxInactiveInterval";
+  private static final String LEGACY_ATTRIBUTE_PREFIX = "sessionAttr:";
+
+  private static final SecureRandom RANDOM = new SecureRandom();
+  private static final Base64.Encoder ID_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+  private final ReactiveRedisTemplate<String, byte[]> redisOperations;
+  private final ReactiveRedisTemplate<String, Object> legacyRedisOperations;
+  private final String namespace;
+  private final SingleFlight<String, Map<String, byte[]>> loads;
+  private Duration defaultMaxInactiveInterval = Duration.ofMinutes(30);
+
+  public CompactRedisSessionRepository(ReactiveRedisConnectionFactory connectionFactory, String namespace) {
+    this(connectionFactory, namespace, 10_000);
+  }
+
+  public CompactRedisSessionRepository(ReactiveRedisConnectionFactory connectionFactory, String namespace,
+      int maxInFlightLoads) {
+    this.redisOperations = new ReactiveRedisTemplate<>(connectionFactory,
+        RedisSerializationContext.<String, byte[]>newSerializationContext(RedisSerializer.byteArray())
+            .key(RedisSerializer.string())
+            .hashKey(RedisSerializer.string())
+            .build());
+    // Mismos serializadores que usa Spring Session por defecto
+    this.legacyRedisOperations = new ReactiveRedisTemplate<>(connectionFactory,
+        RedisSerializationContext.<String, Object>newSerializationContext(RedisSerializer.java())
+            .key(RedisSerializer.string())
+            .hashKey(RedisSerializer.string())
+            .build());
+    this.namespace = namespace;
+    this.loads = new SingleFlight<>(maxInFlightLoads);
+  }
+
+  public void setDefaultMaxInactiveInterval(Duration defaultMaxInactiveInterval) {
+    this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+  }
+
+  @Override
+  public Mono<CompactSession> createSession() {
+    return Mono.fromSupplier(() -> {
+      MapSession cached = new MapSession(generateId());
+      cached.setMaxInactiveInterval(defaultMaxInactiveInterval);
+      return new CompactSession(cached, true, false);
+    });
+  }
+
+  /**
+   * @return Lecturas de sesión enviadas a Redis
+   */
+  public long getRedisLoads() {
+    return loads.getExecutions();
+  }
+
+  /**
+   * @return Lecturas de sesión resueltas con una lectura ya en curso
+   */
+  public long getCoalescedLoads() {
+    return loads.getCoalesced();
+  }
+
+  @Override
+  public Mono<Void> save(CompactSession session) {
+    String key = key(session.getId());
+    String originalKey = key(session.originalId);
+    // Una lectura en curso podría devolver el estado previo a esta escritura
+    loads.forget(key);
+    loads.forget(originalKey);
+
+    Mono<Void> write;
+    if (session.fullWrite) {
+      Map<String, byte[]> fields = new HashMap<>();
+      fields.put(SessionFieldCodec.CREATION_TIME, SessionFieldCodec.encode(session.getCreationTime().toEpochMilli()));
+      fields.put(SessionFieldCodec.LAST_ACCESSED_TIME,
+          SessionFieldCodec.encode(session.getLastAccessedTime().toEpochMilli()));
+      fields.put(SessionFieldCodec.MAX_INACTIVE_INTERVAL,
+          SessionFieldCodec.encode(session.getMaxInactiveInterval().getSeconds()));
+      for (String name : session.getAttributeNames()) {
+        fields.put(SessionFieldCodec.field(name), SessionFieldCodec.encode(session.getAttribute(name)));
+      }
+
+      Mono<Void> dropLegacy = session.legacy
+          ? redisOperations.delete(legacyKey(session.originalId)).then()
+          : Mono.empty();
+      write = redisOperations.<String, byte[]>opsForHash().putAll(key, fields).then(dropLegacy);
+    } else {
+      // Si la clave original ya expiró RENAME falla con "ERR no such key"; como en
+      // el repositorio de Spring Session, se escribe solo la delta bajo el ID nuevo
+      Mono<Void> rename = session.getId().equals(session.originalId)
+          ? Mono.empty()
+          : redisOperations.rename(key(session.originalId), key).then()
+              .onErrorResume(CompactRedisSessionRepository::isNoSuchKey, e -> Mono.empty());
+
+      Map<String, byte[]> updates = new HashMap<>();
+      List<Object> removals = new ArrayList<>();
+      session.delta.forEach((field, value) -> {
+        if (value != null) {
+          updates.put(field, SessionFieldCodec.encode(value));
+        } else {
+          removals.add(field);
+        }
+      });
+
+      Mono<Void> put = updates.isEmpty()
+          ? Mono.empty()
+          : redisOperations.<String, byte[]>opsForHash().putAll(key, updates).then();
+      Mono<Void> remove = removals.isEmpty()
+          ? Mono.empty()
+          : redisOperations.<String, byte[]>opsForHash().remove(key, removals.toArray()).then();
+      write = rename.then(put).then(remove);
+    }
+
+    return write
+        .then(redisOperations.expire(key, session.getMaxInactiveInterval()))
+        .then(Mono.fromRunnable(session::markSaved))
+        // Una lectura iniciada mientras se escribía tampoco debe compartirse después
+        .doFinally(signal -> {
+          loads.forget(key);
+          loads.forget(originalKey);
+        });
+  }
+
+  @Override
+  public Mono<CompactSession> findById(String id) {
+    String key = key(id);
+    return loads.execute(key, () -> redisOperations.<String, byte[]>opsForHash().entries(key)
+        .collectMap(Map.Entry::getKey, Map.Entry::getValue))
+        .filter(entries -> !entries.isEmpty())
+        .map(entries -> decodeCompact(id, entries))
+        .switchIfEmpty(Mono.defer(() -> isLegacyId(id) ? findLegacyById(id) : Mono.empty()))
+        .flatMap(session -> session.isExpired()
+            ? deleteById(session.getId()).then(Mono.<CompactSession>empty())
+            : Mono.just(session));
+  }
+
+  @Override
+  public Mono<Void> deleteById(String id) {
+    loads.forget(key(id));
+    return redisOperations.delete(key(id), legacyKey(id)).then();
+  }
+
+  private Mono<CompactSession> findLegacyById(String id) {
+    return legacyRedisOperations.<String, Object>opsForHash().entries(legacyKey(id))
+        .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+        .filter(entries -> !entries.isEmpty())
+        .map(entries -> {
+          log.debug("Sesión {} leída en formato legado; se migrará en el próximo save()", id);
+          return decodeLegacy(id, entries);
+        });
+  }
+
+  static CompactSession decodeCompact(String id, Map<String, byte[]> entries) {
+    MapSession cached = new MapSession(id);
+    entries.forEach((field, bytes) -> {
+      switch (field) {
+        case SessionFieldCodec.CREATION_TIME ->
+          cached.setCreationTime(Instant.ofEpochMilli((Long) SessionFieldCodec.decode(bytes)));
+        case SessionFieldCodec.LAST_ACCESSED_TIME ->
+          cached.setLastAccessedTime(Instant.ofEpochMilli((Long) SessionFieldCodec.decode(bytes)));
+        case SessionFieldCodec.MAX_INACTIVE_INTERVAL ->
+          cached.setMaxInactiveInterval(Duration.ofSeconds((Long) SessionFieldCodec.decode(bytes)));
+        default -> {
+          String name = SessionFieldCodec.attributeName(field);
+          if (name != null) {
+            cached.setAttribute(name, SessionFieldCodec.decode(bytes));
+          }
+        }
+      }
+    });
+    return new CompactSession(cached, false, false);
+  }
+
+  /**
+   * @param error Error de una operación sobre Redis
+   * @return true si el error es "ERR no such key" (la clave ya no existe)
+   */
+  static boolean isNoSuchKey(Throwable error) {
+    String message = NestedExceptionUtils.getMostSpecificCause(error).getMessage();
+    return message != null && message.regionMatches(true, 0, "ERR no such key", 0, 15);
+  }
+
+  /**
+   * Las sesiones en formato legado tienen como ID un UUID (36 caracteres); los
+   * IDs compactos tienen 22, por lo que un fallo de lectura con un ID compacto no
+   * necesita consultar la clave legada
+   * 
+   * @param id ID de sesión
+   * @return true si el ID puede corresponder al formato legado
+   */
+  static boolean isLegacyId(String id) {
+    return id.length() == 36 && id.charAt(8) == '-' && id.charAt(13) == '-' && id.charAt(18) == '-'
+        && id.charAt(23) == '-';
+  }
+
+  static CompactSession decodeLegacy(String id, Map<String, Object> entries) {
+    MapSession cached = new MapSession(id);
+    entries.forEach((field, value) -> {
+      if (LEGACY_CREATION_TIME.equals(field)) {
+        cached.setCreationTime(Instant.ofEpochMilli((Long) value));
+      } else if (LEGACY_LAST_ACCESSED_TIME.equals(field)) {
+        cached.setLastAccessedTime(Instant.ofEpochMilli((Long) value));
+      } else if (LEGACY_MAX_INACTIVE_INTERVAL.equals(field)) {
+        cached.setMaxInactiveInterval(Duration.ofSeconds(((Number) value).longValue()));
+      } else if (field.startsWith(LEGACY_ATTRIBUTE_PREFIX)) {
+        cached.setAttribute(field.substring(LEGACY_ATTRIBUTE_PREFIX.length()), value);
+      }
+    });
+    return new CompactSession(cached, false, true);
+  }
+
+  private String key(String id) {
+    return namespace + ":s:" + id;
+  }
+
+  private String legacyKey(String id) {
+    return namespace + ":sessions:" + id;
+  }
+
+  private static String generateId() {
+    byte[] bytes = new byte[16];
+    RANDOM.nextBytes(bytes);
+    return ID_ENCODER.encodeToString(bytes);
+  }
+
+  /**
+   * Sesión con registro de cambios para escribir solo los campos modificados
+   */
+  public static final class CompactSession implements Session {
+
+    private final MapSession cached;
+    private final Map<String, Object> delta = new HashMap<>();
+    private String originalId;
+    private boolean fullWrite;
+    private boolean legacy;
+
+    CompactSession(MapSession cached, boolean isNew, boolean legacy) {
+      this.cached = cached;
+      this.originalId = cached.getId();
+      // Las sesiones nuevas y las leídas en formato legado se escriben completas
+      this.fullWrite = isNew || legacy;
+      this.legacy = legacy;
+    }
+
+    @Override
+    public String getId() {
+      return cached.getId();
+    }
+
+    @Override
+    public String changeSessionId() {
+      String newId = generateId();
+      cached.setId(newId);
+      return newId;
+    }
+
+    @Override
+    public <T> T getAttribute(String attributeName) {
+      return cached.getAttribute(attributeName);
+    }
+
+    @Override
+    public Set<String> getAttributeNames() {
+      return cached.getAttributeNames();
+    }
+
+    @Override
+    public void setAttribute(String attributeName, Object attributeValue) {
+      cached.setAttribute(attributeName, attributeValue);
+      delta.put(SessionFieldCodec.field(attributeName), attributeValue);
+    }
+
+    @Override
+    public void removeAttribute(String attributeName) {
+      setAttribute(attributeName, null);
+    }
+
+    @Override
+    public Instant getCreationTime() {
+      return cached.getCreationTime();
+    }
+
+    @Override
+    public void setLastAccessedTime(Instant lastAccessedTime) {
+      cached.setLastAccessedTime(lastAccessedTime);
+      delta.put(SessionFieldCodec.LAST_ACCESSED_TIME, lastAccessedTime.toEpochMilli());
+    }
+
+    @Override
+    public Instant getLastAccessedTime() {
+      return cached.getLastAccessedTime();
+    }
+
+    @Override
+    public void setMaxInactiveInterval(Duration interval) {
+      cached.setMaxInactiveInterval(interval);
+      delta.put(SessionFieldCodec.MAX_INACTIVE_INTERVAL, interval.getSeconds());
+    }
+
+    @Override
+    public Duration getMaxInactiveInterval() {
+      return cached.getMaxInactiveInterval();
+    }
+
+    @Override
+    public boolean isExpired() {
+      return cached.isExpired();
+    }
+
+    /**
+     * @return true si la sesión se leyó en formato legado y aún no se ha migrado
+     */
+    boolean isLegacy() {
+      return legacy;
+    }
+
+    private void markSaved() {
+      originalId = cached.getId();
+      fullWrite = false;
+      legacy = false;
+      delta.clear();
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package com.example.springwebsession.session;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Codificación compacta de los campos y valores del hash de sesión
+ * 
+ * - Campos de metadatos de una letra: c (creación), l (último acceso), m
+ * (inactividad máxima)
+ * - Atributos conocidos con código corto ("_" + código), el resto como "a:" +
+ * nombre
+ * - Valores con un byte de tipo seguido de su representación textual; solo los
+ * tipos no soportados se serializan con Java, de forma que los valores
+ * habituales quedan por debajo de hash-max-listpack-value (64 bytes)
+ */
+public final class SessionFieldCodec {
+
+  static final String CREATION_TIME = "c";
+  static final String LAST_ACCESSED_TIME = "l";
+  static final String MAX_INACTIVE_INTERVAL = "m";
+
+  private static final String KNOWN_PREFIX = "_";
+  private static final String ATTRIBUTE_PREFIX = "a:";
+
+  private static final Map<String, String> NAME_TO_CODE = Map.of(
+      "documentNumber", "d",
+      "email", "e",
+      "loginTime", "lt",
+      "authTime", "at",
+      "authenticated", "au",
+      "otp", "o",
+      "SPRING_SECURITY_CONTEXT", "sc");
+
+  private static final Map<String, String> CODE_TO_NAME = new HashMap<>();
+
+  static {
+    NAME_TO_CODE.forEach((name, code) -> CODE_TO_NAME.put(code, name));
+  }
+
+  private static final byte TYPE_STRING = 'S';
+  private static final byte TYPE_BOOLEAN = 'Z';
+  private static final byte TYPE_INTEGER = 'I';
+  private static final byte TYPE_LONG = 'L';
+  private static final byte TYPE_LOCAL_DATE_TIME = 'T';
+  private static final byte TYPE_JAVA = 'J';
+
+  private static final RedisSerializer<Object> JAVA_SERIALIZER = RedisSerializer.java();
+
+  private SessionFieldCodec() {
+  }
+
+  /**
+   * Obtiene el campo del hash para un atributo de sesión
+   * 
+   * @param attributeName Nombre del atributo
+   * @return Campo compacto
+   */
+  static String field(String attributeName) {
+    String code = NAME_TO_CODE.get(attributeName);
+    return code != null ? KNOWN_PREFIX + code : ATTRIBUTE_PREFIX + attributeName;
+  }
+
+  /**
+   * Obtiene el nombre del atributo a partir de un campo del hash
+   * 
+   * @param field Campo compacto
+   * @return Nombre del atributo o null si el campo no es un atributo
+   */
+  static String attributeName(String field) {
+    if (field.startsWith(KNOWN_PREFIX)) {
+      return CODE_TO_NAME.get(field.substring(KNOWN_PREFIX.length()));
+    }
+    if (field.startsWith(ATTRIBUTE_PREFIX)) {
+      return field.substring(ATTRIBUTE_PREFIX.length());
+    }
+    return null;
+  }
+
+  /**
+   * Codifica un valor con su byte de tipo
+   * 
+   * @param value Valor a codificar
+   * @return Bytes a almacenar en Redis
+   */
+  static byte[] encode(Object value) {
+    if (value instanceof String string) {
+      return tagged(TYPE_STRING, string);
+    }
+    if (value instanceof Boolean bool) {
+      return new byte[] { TYPE_BOOLEAN, (byte) (bool ? '1' : '0') };
+    }
+    if (value instanceof Integer integer) {
+      return tagged(TYPE_INTEGER, integer.toString());
+    }
+    if (value instanceof Long number) {
+      return tagged(TYPE_LONG, number.toString());
+    }
+    if (value instanceof LocalDateTime dateTime) {
+      return tagged(TYPE_LOCAL_DATE_TIME, dateTime.toString());
+    }
+    byte[] serialized = JAVA_SERIALIZER.serialize(value);
+    byte[] encoded = new byte[serialized.length + 1];
+    encoded[0] = TYPE_JAVA;
+    System.arraycopy(serialized, 0, encoded, 1, serialized.length);
+    return encoded;
+  }
+
+  /**
+   * Decodifica un valor almacenado con encode
+   * 
+   * @param bytes Bytes leídos de Redis
+   * @return Valor original
+   */
+  static Object decode(byte[] bytes) {
+    if (bytes == null || bytes.length == 0) {
+      return null;
+    }
+    String text = bytes[0] == TYPE_JAVA ? null : new String(bytes, 1, bytes.length - 1, StandardCharsets.UTF_8);
+    switch (bytes[0]) {
+      case TYPE_STRING:
+        return text;
+      case TYPE_BOOLEAN:
+        return "1".equals(text);
+      case TYPE_INTEGER:
+        return Integer.valueOf(text);
+      case TYPE_LONG:
+        return Long.valueOf(text);
+      case TYPE_LOCAL_DATE_TIME:
+        return LocalDateTime.parse(text);
+      case TYPE_JAVA:
+        byte[] serialized = new byte[bytes.length - 1];
+        System.arraycopy(bytes, 1, serialized, 0, serialized.length);
+        return JAVA_SERIALIZER.deserialize(serialized);
+      default:
+        throw new IllegalStateException("Tipo de valor de sesión desconocido: " + (char) bytes[0]);
+    }
+  }
+
+  private static byte[] tagged(byte type, String text) {
+    byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+    byte[] encoded = new byte[utf8.length + 1];
+    encoded[0] = type;
+    System.arraycopy(utf8, 0, encoded, 1, utf8.length);
+    return encoded;
+  }
+}
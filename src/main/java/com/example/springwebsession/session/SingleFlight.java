@@ -0,0 +1,92 @@
+package com.example.springwebsession.session;
+
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa llamadas concurrentes con la misma clave en una sola ejecución
+ * 
+ * Mientras una carga está en curso, las llamadas con la misma clave se
+ * suscriben al mismo resultado en lugar de lanzar otra. La entrada se elimina
+ * de la tabla al terminar la carga, por lo que no actúa como caché. Si la
+ * tabla alcanza su tamaño máximo las nuevas claves se cargan sin agrupar
+ * 
+ * @param <K> Tipo de la clave
+ * @param <V> Tipo del resultado; debe tratarse como inmutable porque se
+ *            comparte entre suscriptores
+ */
+public final class SingleFlight<K, V> {
+
+  private final ConcurrentHashMap<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+  private final int maxInFlight;
+  private final LongAdder executions = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+
+  public SingleFlight(int maxInFlight) {
+    this.maxInFlight = maxInFlight;
+  }
+
+  /**
+   * Ejecuta la carga o se une a la que ya está en curso para la clave
+   * 
+   * @param key    Clave de agrupación
+   * @param loader Carga a ejecutar si no hay ninguna en curso
+   * @return Resultado compartido
+   */
+  public Mono<V> execute(K key, Supplier<Mono<V>> loader) {
+    return Mono.defer(() -> {
+      Mono<V> existing = inFlight.get(key);
+      if (existing != null) {
+        coalesced.increment();
+        return existing;
+      }
+
+      if (inFlight.size() >= maxInFlight) {
+        executions.increment();
+        return loader.get();
+      }
+
+      AtomicReference<Mono<V>> self = new AtomicReference<>();
+      Mono<V> shared = Mono.defer(loader)
+          .doFinally(signal -> inFlight.remove(key, self.get()))
+          .cache();
+      self.set(shared);
+
+      Mono<V> raced = inFlight.putIfAbsent(key, shared);
+      if (raced != null) {
+        coalesced.increment();
+        return raced;
+      }
+      executions.increment();
+      return shared;
+    });
+  }
+
+  /**
+   * Descarta la carga en curso para la clave; las siguientes llamadas lanzan una
+   * nueva. Se usa cuando el dato se modifica mientras se estaba leyendo
+   * 
+   * @param key Clave a descartar
+   */
+  public void forget(K key) {
+    inFlight.remove(key);
+  }
+
+  /**
+   * @return Cargas ejecutadas
+   */
+  public long getExecutions() {
+    return executions.sum();
+  }
+
+  /**
+   * @return Llamadas resueltas con una carga ya en curso
+   */
+  public long getCoalesced() {
+    return coalesced.sum();
+  }
+}
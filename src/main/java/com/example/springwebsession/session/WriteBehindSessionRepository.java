@@ -0,0 +1,399 @@
+package com.example.springwebsession.session;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.session.ReactiveSessionRepository;
+import org.springframework.session.Session;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Decorador de ReactiveSessionRepository con persistencia diferida
+ * (write-behind) y agrupación de escrituras por sesión
+ *
+ * - save() calcula los cambios de la instancia (atributos y TTL) frente a como
+ * se leyó y los fusiona con los pendientes del mismo ID de sesión; el último
+ * valor de cada atributo gana
+ * - Un proceso en segundo plano vuelca cada sesión una vez vencida la ventana
+ * desde su primer cambio pendiente: todos los save() de la ventana se escriben
+ * con un único delegate.save() sobre la instancia más reciente
+ * - findById() no espera a Redis por lo pendiente: aplica los cambios
+ * pendientes sobre la sesión leída, de modo que las peticiones siguientes del
+ * mismo nodo ven su estado sin pagar la escritura
+ * - El primer save() de una sesión nueva, los cambios de atributos críticos
+ * (como "authenticated" o "documentNumber") y los cambios de ID se escriben de
+ * forma síncrona, y deleteById() (logout/invalidate) siempre lo es
+ * - Si la cola alcanza su tamaño máximo, save() vuelve a ser síncrono
+ *
+ * Todas las operaciones sobre Redis de una misma sesión (volcados, escrituras
+ * síncronas, borrado) se encadenan en orden de llegada. Tras deleteById() se
+ * descartan durante un tiempo los save() de ese ID para que una petición
+ * concurrente no resucite la sesión. Un volcado que falla se vuelve a encolar
+ * hasta maxAttempts veces
+ *
+ * Como en los repositorios de Spring Session, solo se detectan los atributos
+ * reasignados: modificar en sitio el objeto de un atributo no es un cambio
+ *
+ * @param <S> Tipo de sesión del repositorio decorado
+ */
+@Slf4j
+public class WriteBehindSessionRepository<S extends Session> implements ReactiveSessionRepository<S> {
+
+  // Mayor que la duración de cualquier petición que aún pueda guardar la sesión
+  private static final Duration TOMBSTONE_TTL = Duration.ofMinutes(1);
+
+  private final ReactiveSessionRepository<S> delegate;
+  private final Set<String> criticalAttributes;
+  private final Duration window;
+  private final int batchSize;
+  private final int maxPending;
+  private final int maxAttempts;
+
+  private final ConcurrentHashMap<String, PendingWrite<S>> pending = new ConcurrentHashMap<>();
+  // Última operación encadenada por ID de sesión; la siguiente espera a que termine
+  private final ConcurrentHashMap<String, Mono<Void>> tails = new ConcurrentHashMap<>();
+  // Sesiones borradas y el instante del borrado (System.nanoTime())
+  private final ConcurrentHashMap<String, Long> tombstones = new ConcurrentHashMap<>();
+
+  // Estado de cada instancia tal como se leyó o se guardó por última vez; se
+  // libera junto con la sesión
+  private final Map<S, Snapshot> snapshots = Collections.synchronizedMap(new WeakHashMap<>());
+
+  private final Counter coalescedCounter;
+  private final Counter flushedCounter;
+  private final Counter failedCounter;
+  private final Counter droppedCounter;
+  private final Counter synchronousCounter;
+
+  private Disposable flusher;
+
+  public WriteBehindSessionRepository(ReactiveSessionRepository<S> delegate, Set<String> criticalAttributes,
+      Duration window, int batchSize, int maxPending, int maxAttempts, MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.criticalAttributes = criticalAttributes;
+    this.window = window;
+    this.batchSize = batchSize;
+    this.maxPending = maxPending;
+    this.maxAttempts = maxAttempts;
+
+    Gauge.builder("session.writebehind.pending", pending, Map::size)
+        .description("Sesiones con cambios pendientes de volcar a Redis")
+        .register(meterRegistry);
+    coalescedCounter = Counter.builder("session.writebehind.coalesced")
+        .description("save() fusionados con cambios ya pendientes de la misma sesión")
+        .register(meterRegistry);
+    flushedCounter = Counter.builder("session.writebehind.flushed")
+        .description("Escrituras agrupadas volcadas a Redis")
+        .register(meterRegistry);
+    failedCounter = Counter.builder("session.writebehind.failed")
+        .description("Volcados de escrituras diferidas que fallaron")
+        .register(meterRegistry);
+    droppedCounter = Counter.builder("session.writebehind.dropped")
+        .description("save() diferidos descartados tras agotar los reintentos")
+        .register(meterRegistry);
+    synchronousCounter = Counter.builder("session.writebehind.synchronous")
+        .description("save() escritos de forma síncrona (sesión nueva, seguridad o cola llena)")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Inicia el volcado periódico de escrituras pendientes
+   */
+  public void start() {
+    flusher = Flux.interval(window)
+        .onBackpressureDrop()
+        .concatMap(tick -> flushDue(), 0)
+        .subscribe();
+    log.info("Persistencia diferida de sesiones activa (ventana: {}, lote: {}, máximo pendiente: {}, intentos: {})",
+        window, batchSize, maxPending, maxAttempts);
+  }
+
+  /**
+   * Detiene el volcado periódico, escribe todo lo pendiente y espera a que
+   * terminen las operaciones en curso
+   */
+  public void close() {
+    // Solo detiene el temporizador: cada volcado se ejecuta en su propia
+    // suscripción y no se cancela
+    if (flusher != null) {
+      flusher.dispose();
+    }
+    for (String id : new ArrayList<>(pending.keySet())) {
+      chain(id, () -> flushPending(id));
+    }
+    Flux.fromIterable(new ArrayList<>(tails.values()))
+        .flatMap(tail -> tail.onErrorResume(e -> Mono.empty()))
+        .then()
+        .block(Duration.ofSeconds(30));
+
+    if (!pending.isEmpty()) {
+      log.error("Se perdieron los cambios pendientes de {} sesiones al cerrar", pending.size());
+    }
+  }
+
+  @Override
+  public Mono<S> createSession() {
+    return delegate.createSession().doOnNext(session -> takeSnapshot(session, false));
+  }
+
+  @Override
+  public Mono<Void> save(S session) {
+    String id = session.getId();
+    if (tombstones.containsKey(id)) {
+      log.debug("Descartado save() de la sesión borrada {}", id);
+      return Mono.empty();
+    }
+
+    Snapshot snapshot = snapshots.get(session);
+    if (requiresSynchronousWrite(session, snapshot) || pending.size() >= maxPending) {
+      synchronousCounter.increment();
+      String previousId = snapshot != null && !snapshot.id().equals(id) ? snapshot.id() : null;
+      return Mono.defer(() -> {
+        // Con cambio de ID, lo pendiente bajo el ID anterior se escribe primero
+        Mono<Void> before = previousId != null
+            ? chain(previousId, () -> flushPending(previousId))
+            : Mono.empty();
+        return before.then(Mono.defer(() -> chain(id, () -> flushPending(id).then(delegate.save(session)))));
+      })
+          .doOnSuccess(ignored -> takeSnapshot(session, true));
+    }
+
+    Map<String, Object> changes = changedAttributes(session, snapshot);
+    Duration maxInactiveInterval = session.getMaxInactiveInterval().equals(snapshot.maxInactiveInterval())
+        ? null
+        : session.getMaxInactiveInterval();
+    pending.compute(id, (key, write) -> {
+      PendingWrite<S> pendingWrite = write;
+      if (pendingWrite == null) {
+        pendingWrite = new PendingWrite<>(0);
+      } else {
+        coalescedCounter.increment();
+      }
+      pendingWrite.merge(session, changes, maxInactiveInterval);
+      return pendingWrite;
+    });
+    takeSnapshot(session, true);
+    return Mono.empty();
+  }
+
+  @Override
+  public Mono<S> findById(String id) {
+    // Solo se espera si hay una operación sobre Redis en curso para esta sesión
+    return Mono.defer(() -> tails.getOrDefault(id, Mono.empty()).onErrorResume(e -> Mono.empty()))
+        .then(Mono.defer(() -> delegate.findById(id)))
+        .map(session -> {
+          pending.computeIfPresent(id, (key, write) -> {
+            write.applyTo(session);
+            return write;
+          });
+          return session;
+        })
+        .doOnNext(session -> takeSnapshot(session, true));
+  }
+
+  @Override
+  public Mono<Void> deleteById(String id) {
+    return Mono.defer(() -> {
+      tombstones.put(id, System.nanoTime());
+      pending.remove(id);
+      synchronousCounter.increment();
+      // Espera a que termine cualquier volcado en curso de esta sesión
+      return chain(id, () -> delegate.deleteById(id));
+    });
+  }
+
+  /**
+   * Encadena una operación sobre Redis después de la última encolada para la
+   * misma sesión. La operación se ejecuta en su propia suscripción, de modo que
+   * cancelar el Mono devuelto no la interrumpe
+   *
+   * @param id   ID de sesión
+   * @param step Operación a ejecutar
+   * @return Finalización de la operación
+   */
+  private Mono<Void> chain(String id, Supplier<Mono<Void>> step) {
+    Sinks.Empty<Void> done = Sinks.empty();
+    Mono<Void> tail = done.asMono();
+    Mono<Void> previous = tails.put(id, tail);
+    Mono<Void> after = previous != null ? previous.onErrorResume(e -> Mono.empty()) : Mono.empty();
+    after.then(Mono.defer(step))
+        .doFinally(signal -> tails.remove(id, tail))
+        .subscribe(null, done::tryEmitError, done::tryEmitEmpty);
+    return tail;
+  }
+
+  /**
+   * Vuelca hasta batchSize sesiones cuyo primer cambio pendiente es más antiguo
+   * que la ventana y libera los borrados caducados
+   */
+  private Mono<Void> flushDue() {
+    long now = System.nanoTime();
+    long dueBefore = now - window.toNanos();
+    tombstones.values().removeIf(deletedAt -> now - deletedAt > TOMBSTONE_TTL.toNanos());
+
+    List<String> due = new ArrayList<>();
+    for (Map.Entry<String, PendingWrite<S>> entry : pending.entrySet()) {
+      if (due.size() >= batchSize) {
+        break;
+      }
+      if (entry.getValue().firstUpdate - dueBefore <= 0) {
+        due.add(entry.getKey());
+      }
+    }
+
+    return Flux.fromIterable(due)
+        .flatMap(id -> chain(id, () -> flushPending(id)).onErrorResume(e -> Mono.empty()), 16)
+        .then();
+  }
+
+  /**
+   * Escribe los cambios pendientes de una sesión con un único delegate.save()
+   * sobre la instancia más reciente. Si falla, los cambios se vuelven a encolar
+   * por debajo de los que hayan llegado después y se propaga el error. Debe
+   * ejecutarse encadenada con {@link #chain(String, Supplier)}
+   */
+  private Mono<Void> flushPending(String id) {
+    return Mono.defer(() -> {
+      PendingWrite<S> write = pending.remove(id);
+      if (write == null || tombstones.containsKey(id)) {
+        return Mono.empty();
+      }
+
+      S target = write.latest;
+      write.applyTo(target);
+      return delegate.save(target)
+          .doOnSuccess(ignored -> flushedCounter.increment())
+          .doOnError(e -> requeue(id, write, e));
+    });
+  }
+
+  private void requeue(String id, PendingWrite<S> failed, Throwable error) {
+    failedCounter.increment();
+    if (failed.attempts + 1 >= maxAttempts || tombstones.containsKey(id)) {
+      droppedCounter.increment(failed.saves);
+      log.error("Descartados los cambios de la sesión {} ({} save()) tras {} intentos: {}", id, failed.saves,
+          failed.attempts + 1, error.getMessage());
+      return;
+    }
+
+    log.warn("No se pudo volcar la sesión {} (intento {}/{}): {}", id, failed.attempts + 1, maxAttempts,
+        error.getMessage());
+    pending.compute(id, (key, newer) -> {
+      PendingWrite<S> retry = new PendingWrite<>(failed.attempts + 1);
+      retry.mergeAll(failed);
+      if (newer != null) {
+        retry.mergeAll(newer);
+      }
+      return retry;
+    });
+  }
+
+  private boolean requiresSynchronousWrite(S session, Snapshot snapshot) {
+    if (snapshot == null || !snapshot.persisted() || !snapshot.id().equals(session.getId())) {
+      return true;
+    }
+    for (String attribute : criticalAttributes) {
+      if (!Objects.equals(snapshot.attributes().get(attribute), session.getAttribute(attribute))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return Atributos asignados o eliminados desde el snapshot; null indica
+   *         eliminación
+   */
+  private Map<String, Object> changedAttributes(S session, Snapshot snapshot) {
+    Map<String, Object> changes = new HashMap<>();
+    for (String name : session.getAttributeNames()) {
+      Object value = session.getAttribute(name);
+      if (!Objects.equals(value, snapshot.attributes().get(name))) {
+        changes.put(name, value);
+      }
+    }
+    for (String name : snapshot.attributes().keySet()) {
+      if (session.getAttribute(name) == null) {
+        changes.put(name, null);
+      }
+    }
+    return changes;
+  }
+
+  private void takeSnapshot(S session, boolean persisted) {
+    Map<String, Object> attributes = new HashMap<>();
+    for (String name : session.getAttributeNames()) {
+      attributes.put(name, session.getAttribute(name));
+    }
+    snapshots.put(session, new Snapshot(session.getId(), attributes, session.getMaxInactiveInterval(), persisted));
+  }
+
+  private record Snapshot(String id, Map<String, Object> attributes, Duration maxInactiveInterval,
+      boolean persisted) {
+  }
+
+  /**
+   * Cambios pendientes de una sesión, fusionados en orden de save()
+   */
+  private static final class PendingWrite<S extends Session> {
+
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+    private final int attempts;
+    private final long firstUpdate = System.nanoTime();
+    private Duration maxInactiveInterval;
+    private S latest;
+    private int saves;
+
+    PendingWrite(int attempts) {
+      this.attempts = attempts;
+    }
+
+    void merge(S session, Map<String, Object> changes, Duration maxInactiveInterval) {
+      attributes.putAll(changes);
+      if (maxInactiveInterval != null) {
+        this.maxInactiveInterval = maxInactiveInterval;
+      }
+      latest = session;
+      saves++;
+    }
+
+    void mergeAll(PendingWrite<S> other) {
+      merge(other.latest, other.attributes, other.maxInactiveInterval);
+      saves += other.saves - 1;
+    }
+
+    /**
+     * Aplica los cambios fusionados sobre una instancia de la sesión
+     */
+    void applyTo(S session) {
+      attributes.forEach((name, value) -> {
+        if (value != null) {
+          session.setAttribute(name, value);
+        } else {
+          session.removeAttribute(name);
+        }
+      });
+      if (maxInactiveInterval != null) {
+        session.setMaxInactiveInterval(maxInactiveInterval);
+      }
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package com.example.springwebsession.concurrency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+  private static final long FAST = Duration.ofMillis(10).toNanos();
+  private static final long SLOW = Duration.ofMillis(200).toNanos();
+
+  private AdaptiveConcurrencyLimiter limiter;
+  private long base;
+
+  @BeforeEach
+  void setUp() {
+    ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+    properties.setInitialLimit(10);
+    properties.setMinLimit(2);
+    properties.setMaxLimit(12);
+    properties.setLatencyThreshold(Duration.ofMillis(100));
+    properties.setBackoffRatio(0.5);
+    limiter = new AdaptiveConcurrencyLimiter(properties);
+    // Posterior a la creación del limitador, como el inicio de cualquier petición
+    base = System.nanoTime();
+  }
+
+  @Test
+  void fastRequestIncreasesLimitByInverse() {
+    assertTrue(limiter.tryAcquire(RequestPriority.HIGH));
+    limiter.release(base, base + FAST, false);
+
+    assertEquals(10.1, limiter.getLimit(), 1e-9);
+    assertEquals(0, limiter.getInFlight());
+  }
+
+  @Test
+  void burstOfSlowRequestsDecreasesOnce() {
+    for (int i = 0; i < 10; i++) {
+      assertTrue(limiter.tryAcquire(RequestPriority.HIGH));
+    }
+    for (int i = 0; i < 10; i++) {
+      limiter.release(base, base + SLOW + i, false);
+    }
+
+    assertEquals(5.0, limiter.getLimit(), 1e-9);
+  }
+
+  @Test
+  void requestStartedAfterDecreaseDecreasesAgain() {
+    limiter.tryAcquire(RequestPriority.HIGH);
+    limiter.release(base, base + SLOW, false);
+    limiter.tryAcquire(RequestPriority.HIGH);
+    limiter.release(base + SLOW + 1, base + 2 * SLOW + 1, false);
+
+    assertEquals(2.5, limiter.getLimit(), 1e-9);
+  }
+
+  @Test
+  void failureDecreasesEvenWhenFast() {
+    limiter.tryAcquire(RequestPriority.HIGH);
+    limiter.release(base, base + FAST, true);
+
+    assertEquals(5.0, limiter.getLimit(), 1e-9);
+  }
+
+  @Test
+  void limitStaysWithinBounds() {
+    long start = base;
+    for (int i = 0; i < 10; i++) {
+      limiter.tryAcquire(RequestPriority.CRITICAL);
+      limiter.release(start, start + SLOW, false);
+      start += SLOW + 1;
+    }
+    assertEquals(2.0, limiter.getLimit(), 1e-9);
+
+    for (int i = 0; i < 1000; i++) {
+      limiter.tryAcquire(RequestPriority.CRITICAL);
+      limiter.release(start, start + FAST, false);
+    }
+    assertEquals(12.0, limiter.getLimit(), 1e-9);
+  }
+
+  @Test
+  void prioritiesGetTheirShareOfTheLimit() {
+    for (int i = 0; i < 5; i++) {
+      assertTrue(limiter.tryAcquire(RequestPriority.LOW));
+    }
+    assertFalse(limiter.tryAcquire(RequestPriority.LOW));
+
+    for (int i = 0; i < 3; i++) {
+      assertTrue(limiter.tryAcquire(RequestPriority.NORMAL));
+    }
+    assertFalse(limiter.tryAcquire(RequestPriority.NORMAL));
+
+    for (int i = 0; i < 2; i++) {
+      assertTrue(limiter.tryAcquire(RequestPriority.HIGH));
+    }
+    assertFalse(limiter.tryAcquire(RequestPriority.HIGH));
+
+    assertTrue(limiter.tryAcquire(RequestPriority.CRITICAL));
+    assertEquals(11, limiter.getInFlight());
+  }
+
+  @Test
+  void resetRestoresInitialLimit() {
+    limiter.tryAcquire(RequestPriority.HIGH);
+    limiter.release(base, base + SLOW, false);
+
+    limiter.reset();
+
+    assertEquals(10.0, limiter.getLimit(), 1e-9);
+  }
+}
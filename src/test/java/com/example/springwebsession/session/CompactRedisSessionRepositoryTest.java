@@ -0,0 +1,76 @@
+package com.example.springwebsession.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactRedisSessionRepositoryTest {
+
+  @Test
+  void onlyUuidIdsAreLegacy() {
+    assertTrue(CompactRedisSessionRepository.isLegacyId(UUID.randomUUID().toString()));
+    assertFalse(CompactRedisSessionRepository.isLegacyId("q3Yx0v5H2kGm8Zt1bC4nRw"));
+    assertFalse(CompactRedisSessionRepository.isLegacyId("x".repeat(36)));
+  }
+
+  @Test
+  void decodesSpringSessionLayout() {
+    String id = UUID.randomUUID().toString();
+    LocalDateTime loginTime = LocalDateTime.now();
+    Map<String, Object> entries = new HashMap<>();
+    entries.put("creationTime", 1_700_000_000_000L);
+    entries.put("lastAccessedTime", 1_700_000_060_000L);
+    entries.put("maxInactiveInterval", 1800);
+    entries.put("sessionAttr:documentNumber", "12345678");
+    entries.put("sessionAttr:loginTime", loginTime);
+    entries.put("sessionAttr:authenticated", true);
+
+    CompactRedisSessionRepository.CompactSession session = CompactRedisSessionRepository.decodeLegacy(id, entries);
+
+    assertEquals(id, session.getId());
+    assertEquals(Instant.ofEpochMilli(1_700_000_000_000L), session.getCreationTime());
+    assertEquals(Instant.ofEpochMilli(1_700_000_060_000L), session.getLastAccessedTime());
+    assertEquals(Duration.ofMinutes(30), session.getMaxInactiveInterval());
+    assertEquals("12345678", session.getAttribute("documentNumber"));
+    assertEquals(loginTime, session.getAttribute("loginTime"));
+    assertEquals(Boolean.TRUE, session.getAttribute("authenticated"));
+    assertEquals(3, session.getAttributeNames().size());
+    assertTrue(session.isLegacy());
+  }
+
+  @Test
+  void decodesCompactLayout() {
+    String id = "q3Yx0v5H2kGm8Zt1bC4nRw";
+    Map<String, byte[]> entries = new HashMap<>();
+    entries.put(SessionFieldCodec.CREATION_TIME, SessionFieldCodec.encode(1_700_000_000_000L));
+    entries.put(SessionFieldCodec.LAST_ACCESSED_TIME, SessionFieldCodec.encode(1_700_000_060_000L));
+    entries.put(SessionFieldCodec.MAX_INACTIVE_INTERVAL, SessionFieldCodec.encode(300L));
+    entries.put(SessionFieldCodec.field("documentNumber"), SessionFieldCodec.encode("12345678"));
+    entries.put(SessionFieldCodec.field("theme"), SessionFieldCodec.encode("dark"));
+
+    CompactRedisSessionRepository.CompactSession session = CompactRedisSessionRepository.decodeCompact(id, entries);
+
+    assertEquals(Instant.ofEpochMilli(1_700_000_000_000L), session.getCreationTime());
+    assertEquals(Instant.ofEpochMilli(1_700_000_060_000L), session.getLastAccessedTime());
+    assertEquals(Duration.ofMinutes(5), session.getMaxInactiveInterval());
+    assertEquals("12345678", session.getAttribute("documentNumber"));
+    assertEquals("dark", session.getAttribute("theme"));
+    assertFalse(session.isLegacy());
+  }
+
+  @Test
+  void recognisesRenameOfExpiredKey() {
+    RuntimeException cause = new RuntimeException("ERR no such key");
+    assertTrue(CompactRedisSessionRepository.isNoSuchKey(new IllegalStateException("Error in execution", cause)));
+    assertFalse(CompactRedisSessionRepository.isNoSuchKey(new IllegalStateException("READONLY You can't write")));
+  }
+}
@@ -0,0 +1,61 @@
+package com.example.springwebsession.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionFieldCodecTest {
+
+  @Test
+  void knownAttributesUseShortCodes() {
+    assertEquals("_d", SessionFieldCodec.field("documentNumber"));
+    assertEquals("_sc", SessionFieldCodec.field("SPRING_SECURITY_CONTEXT"));
+    assertEquals("documentNumber", SessionFieldCodec.attributeName("_d"));
+    assertEquals("SPRING_SECURITY_CONTEXT", SessionFieldCodec.attributeName("_sc"));
+  }
+
+  @Test
+  void unknownAttributesKeepTheirName() {
+    assertEquals("a:theme", SessionFieldCodec.field("theme"));
+    assertEquals("theme", SessionFieldCodec.attributeName("a:theme"));
+  }
+
+  @Test
+  void metadataFieldsAreNotAttributes() {
+    assertNull(SessionFieldCodec.attributeName(SessionFieldCodec.CREATION_TIME));
+    assertNull(SessionFieldCodec.attributeName(SessionFieldCodec.LAST_ACCESSED_TIME));
+    assertNull(SessionFieldCodec.attributeName(SessionFieldCodec.MAX_INACTIVE_INTERVAL));
+  }
+
+  @Test
+  void valuesRoundTrip() {
+    LocalDateTime loginTime = LocalDateTime.of(2025, 9, 24, 19, 51, 39, 753573000);
+    List<String> list = new ArrayList<>(List.of("a", "b"));
+
+    for (Object value : List.of("12345678", "ñandú@example.com", true, false, 42, 1_700_000_000_000L, loginTime,
+        list)) {
+      assertEquals(value, SessionFieldCodec.decode(SessionFieldCodec.encode(value)));
+    }
+  }
+
+  @Test
+  void typicalValuesStayUnderListpackValueLimit() {
+    assertTrue(SessionFieldCodec.encode("test@example.com").length <= 64);
+    assertTrue(SessionFieldCodec.encode(LocalDateTime.now()).length <= 64);
+    assertTrue(SessionFieldCodec.encode(1_700_000_000_000L).length <= 64);
+    assertArrayEquals(new byte[] { 'Z', '1' }, SessionFieldCodec.encode(true));
+  }
+
+  @Test
+  void emptyValueDecodesToNull() {
+    assertNull(SessionFieldCodec.decode(new byte[0]));
+    assertNull(SessionFieldCodec.decode(null));
+  }
+}
@@ -0,0 +1,123 @@
+package com.example.springwebsession.session;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SingleFlightTest {
+
+  @Test
+  void concurrentCallsShareOneExecution() {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>(10);
+    Sinks.One<String> result = Sinks.one();
+    AtomicInteger loads = new AtomicInteger();
+
+    Mono<String> first = singleFlight.execute("a", () -> {
+      loads.incrementAndGet();
+      return result.asMono();
+    });
+    Mono<String> second = singleFlight.execute("a", () -> {
+      loads.incrementAndGet();
+      return Mono.just("otra");
+    });
+
+    StepVerifier.create(Mono.zip(first, second))
+        .then(() -> result.tryEmitValue("valor"))
+        .assertNext(values -> {
+          assertEquals("valor", values.getT1());
+          assertEquals("valor", values.getT2());
+        })
+        .verifyComplete();
+
+    assertEquals(1, loads.get());
+    assertEquals(1, singleFlight.getExecutions());
+    assertEquals(1, singleFlight.getCoalesced());
+  }
+
+  @Test
+  void completedLoadIsNotReused() {
+    SingleFlight<String, Integer> singleFlight = new SingleFlight<>(10);
+    AtomicInteger loads = new AtomicInteger();
+
+    StepVerifier.create(singleFlight.execute("a", () -> Mono.fromSupplier(loads::incrementAndGet)))
+        .expectNext(1)
+        .verifyComplete();
+    StepVerifier.create(singleFlight.execute("a", () -> Mono.fromSupplier(loads::incrementAndGet)))
+        .expectNext(2)
+        .verifyComplete();
+
+    assertEquals(2, singleFlight.getExecutions());
+    assertEquals(0, singleFlight.getCoalesced());
+  }
+
+  @Test
+  void forgetStartsNewLoad() {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>(10);
+    Sinks.One<String> stale = Sinks.one();
+
+    Mono<String> before = singleFlight.execute("a", stale::asMono);
+    StepVerifier.create(before)
+        .then(() -> {
+          singleFlight.forget("a");
+          StepVerifier.create(singleFlight.execute("a", () -> Mono.just("nuevo")))
+              .expectNext("nuevo")
+              .verifyComplete();
+          stale.tryEmitValue("antiguo");
+        })
+        .expectNext("antiguo")
+        .verifyComplete();
+
+    assertEquals(2, singleFlight.getExecutions());
+  }
+
+  @Test
+  void bypassesWhenFull() {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>(1);
+    Sinks.One<String> pending = Sinks.one();
+    AtomicInteger loads = new AtomicInteger();
+
+    StepVerifier.create(singleFlight.execute("a", pending::asMono))
+        .then(() -> {
+          StepVerifier.create(singleFlight.execute("b", () -> Mono.fromSupplier(() -> "b" + loads.incrementAndGet())))
+              .expectNext("b1")
+              .verifyComplete();
+          StepVerifier.create(singleFlight.execute("b", () -> Mono.fromSupplier(() -> "b" + loads.incrementAndGet())))
+              .expectNext("b2")
+              .verifyComplete();
+          pending.tryEmitValue("a");
+        })
+        .expectNext("a")
+        .verifyComplete();
+
+    assertEquals(3, singleFlight.getExecutions());
+    assertEquals(0, singleFlight.getCoalesced());
+  }
+
+  @Test
+  void errorIsSharedAndNotCached() {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>(10);
+    Sinks.One<String> failing = Sinks.one();
+
+    Mono<String> first = singleFlight.execute("a", failing::asMono);
+    Mono<String> second = singleFlight.execute("a", () -> Mono.just("otra"));
+
+    StepVerifier.create(Mono.zip(first.onErrorReturn("error"), second.onErrorReturn("error")))
+        .then(() -> failing.tryEmitError(new IllegalStateException("Redis no disponible")))
+        .assertNext(values -> {
+          assertEquals("error", values.getT1());
+          assertEquals("error", values.getT2());
+        })
+        .verifyComplete();
+
+    StepVerifier.create(singleFlight.execute("a", () -> Mono.just("recuperado")))
+        .expectNext("recuperado")
+        .verifyComplete();
+    assertEquals(2, singleFlight.getExecutions());
+    assertEquals(1, singleFlight.getCoalesced());
+  }
+}